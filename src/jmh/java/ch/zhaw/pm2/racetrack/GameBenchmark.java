@@ -0,0 +1,75 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Measures the per-turn hot paths of the game: space type lookups, crash checks and a full car turn.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    private Track track;
+    private Game game;
+    private PositionVector startPosition;
+    private PositionVector probePosition;
+    private int probeX;
+    private int probeY;
+
+    @Setup
+    public void setUp() throws IOException, InvalidTrackFormatException {
+        track = new Track(new File(new Config().getTrackDirectory(), "challenge.txt"));
+        game = new Game(track);
+        startPosition = game.getCarPosition(0);
+        probePosition = new PositionVector(startPosition.getX() - 3, startPosition.getY());
+        probeX = probePosition.getX();
+        probeY = probePosition.getY();
+    }
+
+    @Benchmark
+    public Config.SpaceType getSpaceType() {
+        return track.getSpaceType(probePosition);
+    }
+
+    @Benchmark
+    public Config.SpaceType getSpaceTypeXY() {
+        return track.getSpaceType(probeX, probeY);
+    }
+
+    @Benchmark
+    public boolean willCarCrash() {
+        return game.willCarCrash(0, probePosition);
+    }
+
+    /**
+     * Puts the first car back to its start and lets it accelerate to the left, crossing the finish line
+     * in the wrong direction.
+     */
+    @Benchmark
+    public PositionVector doCarTurn() {
+        Car car = track.getCar(0);
+        track.moveCar(0, startPosition);
+        car.setSpeed(Direction.LEFT.vector);
+        car.setLapState(0);
+        game.doCarTurn(Direction.LEFT);
+        return car.getPosition();
+    }
+}
@@ -0,0 +1,57 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading tracks of growing size, generated with {@link TrackGenerator} from a fixed seed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratedTrackBenchmark {
+
+    @Param({"50x25", "500x250", "2000x1000", "10000x10000"})
+    public String size;
+
+    private File trackFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] dimensions = size.split("x");
+        trackFile = File.createTempFile("generated", ".txt");
+        new TrackGenerator(1, Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1])).write(trackFile);
+    }
+
+    @TearDown
+    public void tearDown() {
+        trackFile.delete();
+    }
+
+    @Benchmark
+    public byte[] buildPackedTrack() throws IOException, InvalidTrackFormatException {
+        return new TrackBuilder().buildPackedTrack(trackFile);
+    }
+
+    @Benchmark
+    public Track openTiled() throws IOException, InvalidTrackFormatException {
+        return Track.openTiled(trackFile);
+    }
+}
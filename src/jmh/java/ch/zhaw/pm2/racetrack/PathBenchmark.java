@@ -0,0 +1,67 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the path calculation between two positions for short and long movement vectors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+    private static final int START_X = 30;
+    private static final int START_Y = 12;
+
+    // movement vector as "x,y"
+    @Param({"1,0", "2,-1", "7,4", "-20,9", "31,-12"})
+    public String vector;
+
+    private Game game;
+    private PositionVector start;
+    private PositionVector end;
+    private final PathVisitor countingVisitor = this::countStep;
+    private int steps;
+
+    @Setup
+    public void setUp() throws IOException, InvalidTrackFormatException {
+        game = new Game(new Track(new File(new Config().getTrackDirectory(), "challenge.txt")));
+        String[] components = vector.split(",");
+        start = new PositionVector(START_X, START_Y);
+        end = new PositionVector(START_X + Integer.parseInt(components[0]), START_Y + Integer.parseInt(components[1]));
+    }
+
+    @Benchmark
+    public List<PositionVector> calculatePath() {
+        return game.calculatePath(start, end);
+    }
+
+    @Benchmark
+    public int traversePath() {
+        steps = 0;
+        Game.traversePath(start.getX(), start.getY(), end.getX(), end.getY(), countingVisitor);
+        return steps;
+    }
+
+    private boolean countStep(int x, int y) {
+        steps += x + y;
+        return true;
+    }
+}
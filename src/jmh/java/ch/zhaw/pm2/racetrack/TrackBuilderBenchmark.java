@@ -0,0 +1,44 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading each track file in the track directory with {@link TrackBuilder#buildTrack(File)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackBuilderBenchmark {
+
+    @Param({"challenge.txt", "oval-anticlock-right.txt", "oval-clock-up.txt", "quarter-mile.txt"})
+    public String trackName;
+
+    private File trackFile;
+
+    @Setup
+    public void setUp() {
+        trackFile = new File(new Config().getTrackDirectory(), trackName);
+    }
+
+    @Benchmark
+    public Config.SpaceType[][] buildTrack() throws IOException, InvalidTrackFormatException {
+        return new TrackBuilder().buildTrack(trackFile);
+    }
+}
@@ -0,0 +1,141 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs many independent headless games with the {@link GameEngine}, spread across all available cores.
+ * Every game gets its own track (cars are part of the track state) and its own strategies.
+ */
+public class BatchSimulation {
+    private static final int DEFAULT_GAMES = 10000;
+    private static final int DEFAULT_TURN_LIMIT = 1000;
+
+    private final Callable<Track> trackSupplier;
+    private final Function<Game, List<MoveStrategy>> strategyFactory;
+    private final int turnLimit;
+    private final int threads;
+
+    /**
+     * @param trackSupplier   creates a new track for every game
+     * @param strategyFactory creates one move strategy per car for a new game
+     * @param turnLimit       maximum number of turns per game
+     */
+    public BatchSimulation(Callable<Track> trackSupplier, Function<Game, List<MoveStrategy>> strategyFactory,
+                           int turnLimit) {
+        this(trackSupplier, strategyFactory, turnLimit, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param trackSupplier   creates a new track for every game
+     * @param strategyFactory creates one move strategy per car for a new game
+     * @param turnLimit       maximum number of turns per game
+     * @param threads         number of games played at the same time
+     */
+    public BatchSimulation(Callable<Track> trackSupplier, Function<Game, List<MoveStrategy>> strategyFactory,
+                           int turnLimit, int threads) {
+        this.trackSupplier = trackSupplier;
+        this.strategyFactory = strategyFactory;
+        this.turnLimit = turnLimit;
+        this.threads = threads;
+    }
+
+    /**
+     * Plays the given number of games and waits until all of them are finished.
+     *
+     * @param games number of games to play
+     * @return results of all games, in the order they were submitted
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     * @throws ExecutionException   if a game could not be set up or failed
+     */
+    public Result run(int games) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<GameResult>> futures = new ArrayList<>(games);
+            for (int game = 0; game < games; game++) {
+                futures.add(executor.submit(this::playGame));
+            }
+            List<GameResult> results = new ArrayList<>(games);
+            for (Future<GameResult> future : futures) {
+                results.add(future.get());
+            }
+            return new Result(results, System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private GameResult playGame() throws Exception {
+        Game game = new Game(trackSupplier.call());
+        return GameEngine.run(game, strategyFactory.apply(game), turnLimit);
+    }
+
+    /**
+     * Results of a batch run.
+     */
+    public static class Result {
+        private final List<GameResult> gameResults;
+        private final long elapsedNanos;
+
+        Result(List<GameResult> gameResults, long elapsedNanos) {
+            this.gameResults = Collections.unmodifiableList(gameResults);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<GameResult> getGameResults() {
+            return gameResults;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getGamesPerSecond() {
+            return gameResults.size() / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games in %.3f s (%.0f games/s)",
+                gameResults.size(), elapsedNanos / 1e9, getGamesPerSecond());
+        }
+    }
+
+    /**
+     * Runs a batch of games on one track file and prints the throughput.
+     * Arguments: [track file] [number of games] [turn limit]
+     *
+     * @param args command line arguments
+     * @throws Exception if the track can not be loaded or a game fails
+     */
+    public static void main(String[] args) throws Exception {
+        File trackFile = new File(args.length > 0 ? args[0] : "tracks/challenge.txt");
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GAMES;
+        int turnLimit = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_TURN_LIMIT;
+
+        TrackCache trackCache = new TrackCache();
+        BatchSimulation simulation = new BatchSimulation(() -> trackCache.getTrack(trackFile), game -> {
+            List<MoveStrategy> strategies = new ArrayList<>();
+            for (int carIndex = 0; carIndex < game.getTrack().getCarCount(); carIndex++) {
+                strategies.add(new DO_NOT_MOVE_STRATEGY());
+            }
+            return strategies;
+        }, turnLimit);
+        System.out.println(simulation.run(games));
+        System.out.println("Track cache: " + trackCache.getHits() + " hits, " + trackCache.getMisses() + " misses");
+        if (Metrics.ENABLED) {
+            System.out.print(Metrics.report());
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Precompiled binary form of a track file, stored next to the track file with the extension {@value #EXTENSION}.
+ *
+ * <p>The binary file holds the header (width, height and the start positions of the cars), the packed grid
+ * (see {@link TrackBuilder#buildPackedTrack(File)}) and the length, modification time and CRC32 checksum of the
+ * source file. It is read in bulk without parsing. {@link Track} uses it if it exists and matches the current source
+ * file, otherwise it parses the source file with the {@link TrackBuilder}.</p>
+ *
+ * <p>Layout (big endian): magic "RTB2" | source length (long) | source modification time (long) | source CRC32
+ * (long) | width (int) | height (int) | number of cars (int) | per car: id (char), x (int), y (int)
+ * | width * height space type ordinals (byte)</p>
+ *
+ * <p>Run {@link #main(String[])} (or {@code gradlew compileTracks}) to compile all track files in a directory.</p>
+ */
+public class BinaryTrackFormat {
+    public static final String EXTENSION = ".rtb";
+    public static final String SOURCE_EXTENSION = ".txt";
+
+    private static final int MAGIC = 0x52544232; // "RTB2"
+    private static final int SOURCE_SIZE = 4 + 8 + 8 + 8;
+    private static final int MODIFIED_OFFSET = 4 + 8;
+    private static final int HEADER_SIZE = SOURCE_SIZE + 4 + 4 + 4;
+    private static final int CAR_SIZE = 2 + 4 + 4;
+
+    private BinaryTrackFormat() {
+    }
+
+    /**
+     * Track data read from a binary track file.
+     */
+    static class TrackData {
+        private final byte[] grid;
+        private final int width;
+        private final int height;
+        private final Map<Character, PositionVector> carMap;
+
+        TrackData(byte[] grid, int width, int height, Map<Character, PositionVector> carMap) {
+            this.grid = grid;
+            this.width = width;
+            this.height = height;
+            this.carMap = carMap;
+        }
+
+        byte[] getGrid() {
+            return grid;
+        }
+
+        int getWidth() {
+            return width;
+        }
+
+        int getHeight() {
+            return height;
+        }
+
+        Map<Character, PositionVector> getCarMap() {
+            return carMap;
+        }
+    }
+
+    /**
+     * @param trackFile a track file
+     * @return the binary file belonging to the given track file
+     */
+    public static File binaryFileFor(File trackFile) {
+        String name = trackFile.getName();
+        if (name.endsWith(SOURCE_EXTENSION)) {
+            name = name.substring(0, name.length() - SOURCE_EXTENSION.length());
+        }
+        return new File(trackFile.getAbsoluteFile().getParentFile(), name + EXTENSION);
+    }
+
+    /**
+     * Parses the given track file and writes its binary form next to it.
+     *
+     * @param trackFile track file to compile
+     * @return the written binary file
+     * @throws IOException                 if the track file can not be read or the binary file not be written
+     * @throws InvalidTrackFormatException if the track file contains invalid data
+     */
+    public static File compile(File trackFile) throws IOException, InvalidTrackFormatException {
+        byte[] source = readFully(trackFile);
+        TrackBuilder builder = new TrackBuilder();
+        byte[] grid = builder.buildPackedTrack(trackFile);
+        Map<Character, PositionVector> carMap = builder.getCarMap();
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + carMap.size() * CAR_SIZE + grid.length);
+        buffer.putInt(MAGIC);
+        buffer.putLong(source.length);
+        buffer.putLong(trackFile.lastModified());
+        buffer.putLong(checksum(source));
+        buffer.putInt(builder.getTrackWidth());
+        buffer.putInt(builder.getTrackHeight());
+        buffer.putInt(carMap.size());
+        for (Map.Entry<Character, PositionVector> car : carMap.entrySet()) {
+            buffer.putChar(car.getKey());
+            buffer.putInt(car.getValue().getX());
+            buffer.putInt(car.getValue().getY());
+        }
+        buffer.put(grid);
+        buffer.flip();
+
+        File binaryFile = binaryFileFor(trackFile);
+        try (FileChannel channel = new FileOutputStream(binaryFile).getChannel()) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        return binaryFile;
+    }
+
+    /**
+     * Reads the binary form of the given track file, if there is one and it was compiled from the current
+     * content of the track file.
+     *
+     * <p>Only the header of the binary file is read to compare the length and modification time of the track file.
+     * If the length differs, the binary file is stale. If only the modification time differs (e.g. the file was
+     * copied or checked out again), the checksum of the track file decides, and the header is updated so the next
+     * load does not have to read the track file again.</p>
+     *
+     * @param trackFile track file
+     * @return the track data, or null if the binary file is missing, stale or corrupt
+     * @throws IOException if the track file can not be read
+     */
+    static TrackData readIfCurrent(File trackFile) throws IOException {
+        File binaryFile = binaryFileFor(trackFile);
+        if (!binaryFile.isFile()) {
+            return null;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = new FileInputStream(binaryFile).getChannel()) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(SOURCE_SIZE);
+            readFully(channel, header);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getLong() != trackFile.length()) {
+                return null;
+            }
+            long sourceModified = header.getLong();
+            long sourceChecksum = header.getLong();
+            long modified = trackFile.lastModified();
+            if (sourceModified != modified) {
+                if (sourceChecksum != checksum(readFully(trackFile))) {
+                    return null;
+                }
+                updateModified(binaryFile, modified);
+            }
+            buffer = ByteBuffer.allocate((int) channel.size() - SOURCE_SIZE);
+            readFully(channel, buffer);
+            buffer.flip();
+        }
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        int carCount = buffer.getInt();
+        if (width <= 0 || height <= 0 || carCount < 0 || carCount > Config.MAX_CARS
+            || buffer.remaining() != (long) carCount * CAR_SIZE + (long) width * height) {
+            return null;
+        }
+        Map<Character, PositionVector> carMap = new LinkedHashMap<>();
+        for (int car = 0; car < carCount; car++) {
+            char id = buffer.getChar();
+            carMap.put(id, PositionVector.of(buffer.getInt(), buffer.getInt()));
+        }
+        byte[] grid = new byte[width * height];
+        buffer.get(grid);
+        if (carMap.size() != carCount || !isValid(grid, width, height, carMap)) {
+            return null;
+        }
+        return new TrackData(grid, width, height, carMap);
+    }
+
+    /**
+     * Stores the new modification time of the unchanged track file in the header of the binary file. A binary file
+     * which can not be written is still used, the track file is then only checked again on the next load.
+     */
+    private static void updateModified(File binaryFile, long modified) {
+        ByteBuffer value = ByteBuffer.allocate(8).putLong(0, modified);
+        try (FileChannel channel = new RandomAccessFile(binaryFile, "rw").getChannel()) {
+            while (value.hasRemaining()) {
+                channel.write(value, MODIFIED_OFFSET + value.position());
+            }
+        } catch (IOException e) {
+            // keep the old header
+        }
+    }
+
+    /**
+     * Checks that every byte of the grid is a space type ordinal and that every car starts on a track space
+     * inside of the grid, so a corrupt binary file is never used.
+     */
+    private static boolean isValid(byte[] grid, int width, int height, Map<Character, PositionVector> carMap) {
+        int spaceTypes = Config.SpaceType.values().length;
+        for (byte ordinal : grid) {
+            if (ordinal < 0 || ordinal >= spaceTypes) {
+                return false;
+            }
+        }
+        for (PositionVector start : carMap.values()) {
+            int x = start.getX();
+            int y = start.getY();
+            if (x < 0 || x >= width || y < 0 || y >= height
+                || grid[y * width + x] != Config.SpaceType.TRACK.ordinal()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            readFully(channel, buffer);
+            return buffer.array();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // read until the buffer is full
+        }
+    }
+
+    private static long checksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return crc.getValue();
+    }
+
+    /**
+     * Compiles all track files ({@value #SOURCE_EXTENSION}) in the given directory
+     * (default: the track directory of {@link Config}).
+     *
+     * @param args optional track directory
+     */
+    public static void main(String[] args) {
+        File directory = args.length > 0 ? new File(args[0]) : new Config().getTrackDirectory();
+        File[] trackFiles = directory.listFiles((dir, name) -> name.endsWith(SOURCE_EXTENSION));
+        if (trackFiles == null) {
+            System.err.println("Not a directory: " + directory);
+            System.exit(1);
+        }
+        int failed = 0;
+        for (File trackFile : trackFiles) {
+            try {
+                System.out.println(trackFile + " -> " + compile(trackFile));
+            } catch (IOException | InvalidTrackFormatException e) {
+                System.err.println(trackFile + ": " + e);
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -10,9 +10,10 @@ package ch.zhaw.pm2.racetrack;
  */
 public class Car {
     private PositionVector position;
-    private PositionVector speed = new PositionVector(0, 0);
+    private PositionVector speed = PositionVector.of(0, 0);
     private char name;
     private boolean crashed = false;
+    private int lapState = 0;
 
     public Car(PositionVector position, char name) {
         this.position = position;
@@ -22,6 +23,19 @@ public class Car {
     public Car() {
 
     }
+
+    /**
+     * Creates a copy of the given car, including its current state.
+     *
+     * @param other car to copy
+     */
+    public Car(Car other) {
+        position = other.position;
+        speed = other.speed;
+        name = other.name;
+        crashed = other.crashed;
+        lapState = other.lapState;
+    }
 /*
     /**
      * calculates the car's new speed and position
@@ -76,15 +90,57 @@ public class Car {
         this.speed = speed;
     }
 
+    /**
+     * Returns the state of the car regarding the finish line: how often it crossed the line in the wrong direction
+     * and how it entered the line it is currently on.
+     * See {@link Game#updateLapState(Config.SpaceType, Config.SpaceType, int, int, int)}.
+     *
+     * @return lap state of the car
+     */
+    public int getLapState() {
+        return lapState;
+    }
+
+    public void setLapState(int lapState) {
+        this.lapState = lapState;
+    }
+
+    /**
+     * Sets the whole state of the car at once, e.g. to roll back a game to a snapshot.
+     * Unlike {@link #crash()} this can also reset the crashed state.
+     * Position and velocity objects are only replaced if their value changes.
+     */
+    void restore(int x, int y, int velocityX, int velocityY, int lapState, boolean crashed) {
+        if (position == null || position.getX() != x || position.getY() != y) {
+            position = PositionVector.of(x, y);
+        }
+        if (speed.getX() != velocityX || speed.getY() != velocityY) {
+            speed = PositionVector.of(velocityX, velocityY);
+        }
+        this.lapState = lapState;
+        this.crashed = crashed;
+    }
+
+    /**
+     * Moves the car by its current velocity.
+     */
     public void move(){
-        //TODO implement
+        position = PositionVector.add(position, speed);
     }
 
+    /**
+     * Marks the car as crashed. A crashed car can not be uncrashed.
+     */
     public void crash(){
-        //TODO implement
+        crashed = true;
     }
 
+    /**
+     * Changes the velocity of the car by the given acceleration.
+     *
+     * @param direction acceleration of this turn
+     */
     public void accelerate(PositionVector.Direction direction){
-        //TODO implement
+        speed = PositionVector.add(speed, direction.vector);
     }
 }
@@ -0,0 +1,166 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grid of a very large track, read from its track file on demand (see {@link Track#openTiled(File, int)}).
+ *
+ * <p>The track file is checked and indexed once by the {@link TrackBuilder}, which only keeps the byte offset of
+ * each line. The file is then memory-mapped and the grid is decoded in square chunks of {@link #CHUNK_SIZE} spaces
+ * on the first access to a space of the chunk. At most a given number of chunks are resident, the least recently
+ * used chunk is dropped when another one is decoded. So the memory of the grid depends on the area the cars
+ * actually visit, not on the size of the map.</p>
+ *
+ * <p>The grid can be read from several threads. The last used chunk is kept in a volatile field, so a series of
+ * lookups in the same area doesn't need the lock of the chunk cache. The track file must not be changed while
+ * the grid is in use.</p>
+ */
+class ChunkedGrid {
+    static final int CHUNK_SIZE = 64;
+    static final int DEFAULT_MAX_CHUNKS = 1024;
+    private static final int CHUNK_BITS = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    // a mapping covers this many bytes plus one line, so every line lies in a single mapping
+    private static final long MAPPING_STEP = 1L << 30;
+
+    private static final Config.SpaceType[] SPACE_TYPES = Config.SpaceType.values();
+
+    private final int width;
+    private final int height;
+    private final int chunksPerRow;
+    private final Map<Character, PositionVector> carStarts;
+    private final long[] lineOffsets;
+    private final Map<Integer, byte[]> decodedLines;
+    private final MappedByteBuffer[] mappings;
+    private final Map<Integer, Chunk> chunks;
+    private final LongAdder chunkLoads = new LongAdder();
+    private volatile Chunk lastChunk;
+
+    /**
+     * @param trackFile track file, see {@link Track} for the format
+     * @param maxChunks maximum number of resident chunks
+     * @throws IOException                 if the file couldn't be found or read
+     * @throws InvalidTrackFormatException if the track file contains invalid data
+     */
+    ChunkedGrid(File trackFile, int maxChunks) throws IOException, InvalidTrackFormatException {
+        if (maxChunks < 1) {
+            throw new IllegalArgumentException("At least one chunk must be resident");
+        }
+        TrackBuilder builder = new TrackBuilder();
+        lineOffsets = builder.indexTrack(trackFile);
+        decodedLines = builder.getDecodedLines();
+        carStarts = builder.getCarMap();
+        width = builder.getTrackWidth();
+        height = builder.getTrackHeight();
+        chunksPerRow = (width + CHUNK_MASK) >>> CHUNK_BITS;
+        try (FileChannel channel = FileChannel.open(trackFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            mappings = new MappedByteBuffer[(int) ((size + MAPPING_STEP - 1) / MAPPING_STEP)];
+            for (int index = 0; index < mappings.length; index++) {
+                long start = index * MAPPING_STEP;
+                mappings[index] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(size - start, MAPPING_STEP + width));
+            }
+        }
+        chunks = new LinkedHashMap<Integer, Chunk>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Chunk> eldest) {
+                return size() > maxChunks;
+            }
+        };
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    Map<Character, PositionVector> getCarStarts() {
+        return carStarts;
+    }
+
+    /**
+     * @param x horizontal position, inside of the grid
+     * @param y vertical position, inside of the grid
+     * @return the space type at (x, y)
+     */
+    Config.SpaceType getSpaceType(int x, int y) {
+        int index = (y >>> CHUNK_BITS) * chunksPerRow + (x >>> CHUNK_BITS);
+        Chunk chunk = lastChunk;
+        if (chunk == null || chunk.index != index) {
+            chunk = getChunk(index);
+            lastChunk = chunk;
+        }
+        return SPACE_TYPES[chunk.spaces[(y & CHUNK_MASK) << CHUNK_BITS | (x & CHUNK_MASK)]];
+    }
+
+    /**
+     * @return number of chunks currently held by the chunk cache
+     */
+    synchronized int getResidentChunks() {
+        return chunks.size();
+    }
+
+    /**
+     * @return number of chunks decoded from the track file so far
+     */
+    long getChunkLoads() {
+        return chunkLoads.sum();
+    }
+
+    private synchronized Chunk getChunk(int index) {
+        Chunk chunk = chunks.get(index);
+        if (chunk == null) {
+            chunk = new Chunk(index, decode(index));
+            chunks.put(index, chunk);
+            chunkLoads.increment();
+        }
+        return chunk;
+    }
+
+    private byte[] decode(int index) {
+        int startX = (index % chunksPerRow) << CHUNK_BITS;
+        int startY = (index / chunksPerRow) << CHUNK_BITS;
+        int chunkWidth = Math.min(CHUNK_SIZE, width - startX);
+        int chunkHeight = Math.min(CHUNK_SIZE, height - startY);
+        byte[] spaces = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        for (int row = 0; row < chunkHeight; row++) {
+            int y = startY + row;
+            int rowStart = row << CHUNK_BITS;
+            byte[] decodedLine = decodedLines.get(y);
+            if (decodedLine != null) {
+                System.arraycopy(decodedLine, startX, spaces, rowStart, chunkWidth);
+                continue;
+            }
+            long offset = lineOffsets[y] + startX;
+            ByteBuffer mapping = mappings[(int) (offset / MAPPING_STEP)].duplicate();
+            mapping.position((int) (offset % MAPPING_STEP));
+            mapping.get(spaces, rowStart, chunkWidth);
+            for (int column = rowStart; column < rowStart + chunkWidth; column++) {
+                spaces[column] = TrackBuilder.toOrdinal(spaces[column]);
+            }
+        }
+        return spaces;
+    }
+
+    private static class Chunk {
+        private final int index;
+        private final byte[] spaces; // Config.SpaceType ordinals, CHUNK_SIZE per row
+
+        private Chunk(int index, byte[] spaces) {
+            this.index = index;
+            this.spaces = spaces;
+        }
+    }
+}
@@ -9,7 +9,7 @@ public class Config {
     private File trackDirectory = new File("tracks");
 
     public enum StrategyType {
-        DO_NOT_MOVE, USER, MOVE_LIST
+        DO_NOT_MOVE, USER, MOVE_LIST, PATH_FINDER, MONTE_CARLO
     }
 
     /**
@@ -30,6 +30,10 @@ public class Config {
         SpaceType(final char c) {
             value = c;
         }
+
+        public char getValue() {
+            return value;
+        }
     }
 
     public File getTrackDirectory() {
@@ -0,0 +1,245 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Terminal on standard input and output (or any other pair of streams), for scripted and headless runs.
+ *
+ * <p>Output is collected in a large buffer and only written when it is full, when input is read or on
+ * {@link #flush()} (the default terminal also flushes when the JVM exits), so printing the track every turn
+ * costs few writes. The terminal counts the lines printed after the bookmark and moves the cursor back to them
+ * with ANSI escape sequences, to clear the screen below a line or to overwrite single spaces of the track.
+ * This works as long as no line printed after the bookmark is wider than the terminal and the bookmark is
+ * still on the screen.</p>
+ *
+ * <p>Input is read line by line. Invalid input is reported and the prompt is repeated, the end of the input
+ * fails with an {@link UncheckedIOException}.</p>
+ */
+class ConsoleTerminal implements Terminal {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String ESCAPE = "\u001b[";
+
+    private final BufferedReader input;
+    private final Writer output;
+    private boolean bookmarkSet;
+    private int linesSinceBookmark;
+    private int bookmarkColumn;
+    private int column;
+
+    /**
+     * @param input  stream the input is read from, e.g. {@link System#in}
+     * @param output stream the output is written to, e.g. {@link System#out}
+     */
+    ConsoleTerminal(InputStream input, OutputStream output) {
+        Charset charset = Charset.defaultCharset();
+        this.input = new BufferedReader(new InputStreamReader(input, charset));
+        this.output = new BufferedWriter(new OutputStreamWriter(output, charset), BUFFER_SIZE);
+    }
+
+    @Override
+    public synchronized void print(String output) {
+        write(output);
+        int lineEnd = output.lastIndexOf('\n');
+        if (lineEnd < 0) {
+            column += output.length();
+            return;
+        }
+        column = output.length() - lineEnd - 1;
+        if (bookmarkSet) {
+            for (int index = 0; index <= lineEnd; index++) {
+                if (output.charAt(index) == '\n') {
+                    linesSinceBookmark++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void setBookmark() {
+        bookmarkSet = true;
+        linesSinceBookmark = 0;
+        bookmarkColumn = column;
+    }
+
+    @Override
+    public synchronized void resetToBookmark() {
+        if (bookmarkSet) {
+            clearAfterBookmark(0);
+        }
+    }
+
+    @Override
+    public boolean supportsCursorAddressing() {
+        return true;
+    }
+
+    @Override
+    public synchronized void clearAfterBookmark(int lines) {
+        requireLineAfterBookmark(lines);
+        StringBuilder clear = new StringBuilder("\r");
+        moveUp(clear, linesSinceBookmark - lines);
+        int lineStart = lines == 0 ? bookmarkColumn : 0;
+        if (lineStart > 0) {
+            clear.append(ESCAPE).append(lineStart).append('C');
+        }
+        clear.append(ESCAPE).append('J');
+        write(clear.toString());
+        linesSinceBookmark = lines;
+        column = lineStart;
+    }
+
+    @Override
+    public synchronized void printAtBookmark(int line, int column, String text) {
+        requireLineAfterBookmark(line);
+        int linesUp = linesSinceBookmark - line;
+        StringBuilder move = new StringBuilder();
+        moveUp(move, linesUp);
+        moveToColumn(move, (line == 0 ? bookmarkColumn : 0) + column);
+        move.append(text);
+        if (linesUp > 0) {
+            move.append(ESCAPE).append(linesUp).append('B');
+        }
+        moveToColumn(move, this.column);
+        write(move.toString());
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int readInt(int min, int max, String prompt) {
+        while (true) {
+            String line = readLine(prompt);
+            try {
+                int value = Integer.parseInt(line);
+                if (value >= min && value <= max) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            print("Expected an integer value between " + min + " and " + max + ".\n");
+        }
+    }
+
+    @Override
+    public char readChar(String prompt) {
+        while (true) {
+            String line = readLine(prompt);
+            if (line.length() == 1) {
+                return line.charAt(0);
+            }
+            print("Expected a single character.\n");
+        }
+    }
+
+    @Override
+    public boolean readBoolean(String prompt) {
+        while (true) {
+            switch (readLine(prompt).toLowerCase(Locale.ROOT)) {
+                case "y":
+                case "yes":
+                case "true":
+                    return true;
+                case "n":
+                case "no":
+                case "false":
+                    return false;
+                default:
+                    print("Expected y or n.\n");
+            }
+        }
+    }
+
+    /**
+     * Lists the constants with a number, then reads either the number or the name of a constant
+     * (ignoring case).
+     */
+    @Override
+    public <T extends Enum<T>> T readEnum(Class<T> enumType, String prompt) {
+        T[] constants = enumType.getEnumConstants();
+        StringBuilder list = new StringBuilder();
+        for (int index = 0; index < constants.length; index++) {
+            list.append(index + 1).append(": ").append(constants[index]).append('\n');
+        }
+        print(list.toString());
+        while (true) {
+            String line = readLine(prompt);
+            for (int index = 0; index < constants.length; index++) {
+                if (line.equals(String.valueOf(index + 1)) || line.equalsIgnoreCase(constants[index].name())) {
+                    return constants[index];
+                }
+            }
+            print("Expected a number between 1 and " + constants.length + " or a name from the list.\n");
+        }
+    }
+
+    /**
+     * Prints the prompt, flushes the output and reads the next line without surrounding whitespace.
+     * The line typed by the user ends the line of the prompt on the screen.
+     */
+    private String readLine(String prompt) {
+        synchronized (this) {
+            print(prompt);
+            flush();
+        }
+        String line;
+        try {
+            line = input.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (line == null) {
+            throw new UncheckedIOException(new EOFException("End of input at: " + prompt));
+        }
+        synchronized (this) {
+            column = 0;
+            if (bookmarkSet) {
+                linesSinceBookmark++;
+            }
+        }
+        return line.trim();
+    }
+
+    private void requireLineAfterBookmark(int line) {
+        if (!bookmarkSet || line < 0 || line > linesSinceBookmark) {
+            throw new IllegalStateException("Line " + line + " after the bookmark was not printed");
+        }
+    }
+
+    // a cursor movement by 0 moves by 1 in most terminals, so it is left out
+    private static void moveUp(StringBuilder sequence, int lines) {
+        if (lines > 0) {
+            sequence.append(ESCAPE).append(lines).append('A');
+        }
+    }
+
+    private static void moveToColumn(StringBuilder sequence, int column) {
+        sequence.append(ESCAPE).append(column + 1).append('G');
+    }
+
+    private void write(String text) {
+        try {
+            output.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -13,10 +13,38 @@ import static ch.zhaw.pm2.racetrack.PositionVector.*;
 public class Game {
     public static final int NO_WINNER = -1;
 
+    /**
+     * Result of {@link #updateLapState(Config.SpaceType, Config.SpaceType, int, int, int)} if the car wins.
+     */
+    static final int LAP_WON = -1;
+    private static final int LAP_NOT_ON_FINISH_LINE = 0;
+    private static final int LAP_ENTERED_CORRECT = 1;
+    private static final int LAP_ENTERED_REVERSE = 2;
+    private static final int LAP_ENTRY_STATES = 3;
+
+    // layout of a snapshot: one long for the game, two longs per car
+    private static final int SNAPSHOT_CARS_OFFSET = 1;
+    private static final int SNAPSHOT_LONGS_PER_CAR = 2;
+
     private int activeCarIndex = 0;
     private Track raceTrack;
     private static final int MIN_CARS = 2;
     private int winnerIndex = NO_WINNER;
+    private ReplayJournal journal;
+
+    // state of the path traversal in doCarTurn
+    private static final int NOT_STATIC = -1;
+    private final PathVisitor turnStepVisitor = this::visitTurnStep;
+    private boolean firstTurnStep;
+    private boolean turnStepCrashed;
+    private Config.SpaceType turnStepSpaceType;
+    private int turnStepX;
+    private int turnStepY;
+
+    // state of the path traversal in willPathCrash
+    private final PathVisitor crashStepVisitor = this::visitCrashStep;
+    private boolean firstCrashStep;
+    private int crashStepCarIndex;
 
     /**
      * Constructor of the class Game.
@@ -36,6 +64,98 @@ public class Game {
         }
     }
 
+    /**
+     * Return the track the game is played on.
+     *
+     * @return race track
+     */
+    public Track getTrack() {
+        return raceTrack;
+    }
+
+    /**
+     * Records all following turns of this game in the given journal.
+     * Copies of the game (see {@link #copy()}) don't record their turns.
+     *
+     * @param journal journal to append the turns to, or null to stop recording
+     */
+    public void setJournal(ReplayJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Creates a copy of this game for lookahead. The copy plays on a copy of the track (see {@link Track#copy()}),
+     * so it shares the immutable grid, but moving cars in the copy doesn't affect this game.
+     *
+     * @return copy of this game in its current state
+     */
+    public Game copy() {
+        Game copy = new Game(raceTrack.copy());
+        copy.activeCarIndex = activeCarIndex;
+        copy.winnerIndex = winnerIndex;
+        return copy;
+    }
+
+    /**
+     * @return number of longs needed to store a snapshot of this game
+     */
+    public int getSnapshotLength() {
+        return SNAPSHOT_CARS_OFFSET + raceTrack.getCarCount() * SNAPSHOT_LONGS_PER_CAR;
+    }
+
+    /**
+     * Returns a snapshot of the current game state, see {@link #snapshot(long[])}.
+     *
+     * @return new snapshot of the game state
+     */
+    public long[] snapshot() {
+        long[] snapshot = new long[getSnapshotLength()];
+        snapshot(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Stores the current game state in the given array: the active car and the winner, followed by position,
+     * velocity, lap state and crashed flag of every car. Only primitive values are stored, so a search can keep
+     * any number of snapshots without copying cars or tracks, and reuse its arrays without allocating.
+     * The grid is not part of the snapshot, as it never changes.
+     *
+     * @param snapshot array of at least {@link #getSnapshotLength()} longs to store the state in
+     */
+    public void snapshot(long[] snapshot) {
+        snapshot[0] = PositionVector.pack(activeCarIndex, winnerIndex);
+        for (int carIndex = 0; carIndex < raceTrack.getCarCount(); carIndex++) {
+            Car car = raceTrack.getCar(carIndex);
+            int offset = SNAPSHOT_CARS_OFFSET + carIndex * SNAPSHOT_LONGS_PER_CAR;
+            PositionVector position = car.getPosition();
+            PositionVector velocity = car.getSpeed();
+            snapshot[offset] = PositionVector.pack(position.getX(), position.getY());
+            snapshot[offset + 1] = (long) PositionVector.packCompact(velocity.getX(), velocity.getY()) << 32
+                | (car.getLapState() & 0x7FFFFFFFL) << 1
+                | (car.isCrashed() ? 1 : 0);
+        }
+    }
+
+    /**
+     * Sets the game back to the state stored in the given snapshot.
+     * The snapshot must have been taken from this game or a copy of it (see {@link #copy()}).
+     *
+     * @param snapshot snapshot created by {@link #snapshot()} or {@link #snapshot(long[])}
+     */
+    public void restore(long[] snapshot) {
+        activeCarIndex = PositionVector.packedX(snapshot[0]);
+        winnerIndex = PositionVector.packedY(snapshot[0]);
+        for (int carIndex = 0; carIndex < raceTrack.getCarCount(); carIndex++) {
+            int offset = SNAPSHOT_CARS_OFFSET + carIndex * SNAPSHOT_LONGS_PER_CAR;
+            long position = snapshot[offset];
+            long carState = snapshot[offset + 1];
+            int velocity = (int) (carState >>> 32);
+            raceTrack.restoreCar(carIndex, PositionVector.packedX(position), PositionVector.packedY(position),
+                PositionVector.compactX(velocity), PositionVector.compactY(velocity),
+                (int) (carState >>> 1) & 0x7FFFFFFF, (carState & 1) != 0);
+        }
+    }
+
     /**
      * Return the index of the current active car.
      * Car indexes are zero-based, so the first car is 0, and the last car is getCarCount() - 1.
@@ -54,7 +174,7 @@ public class Game {
      * @throws IllegalArgumentException
      */
     public char getCarId(int carIndex) {
-        if (isValidCarIndex(carIndex)) {
+        if (!isValidCarIndex(carIndex)) {
             throw new IllegalArgumentException("Is not a legal car index.");
         }
         return raceTrack.getCarId(carIndex);
@@ -67,7 +187,7 @@ public class Game {
      * @return true if a valid index given
      */
     private boolean isValidCarIndex(int carIndex) {
-        return carIndex >= MIN_CARS && carIndex <= Config.MAX_CARS;
+        return carIndex >= 0 && carIndex < raceTrack.getCarCount();
     }
 
     /**
@@ -78,10 +198,10 @@ public class Game {
      * @throws IllegalArgumentException
      */
     public PositionVector getCarPosition(int carIndex) {
-        if (isValidCarIndex(carIndex)) {
+        if (!isValidCarIndex(carIndex)) {
             throw new IllegalArgumentException("Is not a legal car index.");
         }
-        return raceTrack.getCarPos(activeCarIndex);
+        return raceTrack.getCarPos(carIndex);
     }
 
     /**
@@ -92,10 +212,10 @@ public class Game {
      * @throws IllegalArgumentException
      */
     public PositionVector getCarVelocity(int carIndex) {
-        if (isValidCarIndex(carIndex)) {
+        if (!isValidCarIndex(carIndex)) {
             throw new IllegalArgumentException("Is not a legal car index.");
         }
-        return raceTrack.getCarVelocity(activeCarIndex);
+        return raceTrack.getCarVelocity(carIndex);
     }
 
     /**
@@ -114,13 +234,15 @@ public class Game {
      * <p>The steps are as follows</p>
      * <ol>
      *   <li>Accelerate the current car</li>
-     *   <li>Calculate the path from current (start) to next (end) position
-     *       (see {@link Game#calculatePath(PositionVector, PositionVector)})</li>
+     *   <li>Walk the path from current (start) to next (end) position
+     *       (see {@link Game#traversePath(int, int, int, int, PathVisitor)})</li>
      *   <li>Verify for each step what space type it hits:
      *      <ul>
      *          <li>TRACK: check for collision with other car (crashed &amp; don't continue), otherwise do nothing</li>
      *          <li>WALL: car did collide with the wall - crashed &amp; don't continue</li>
-     *          <li>FINISH_*: car hits the finish line - wins only if it crosses the line in the correct direction</li>
+     *          <li>FINISH_*: car hits the finish line - wins only if it crosses the line in the correct direction
+     *              and did not cross it in the wrong direction before
+     *              (see {@link #updateLapState(Config.SpaceType, Config.SpaceType, int, int, int)})</li>
      *      </ul>
      *   </li>
      *   <li>If the car crashed or wins, set its position to the crash/win coordinates</li>
@@ -134,79 +256,284 @@ public class Game {
      *                     for this turn
      */
     public void doCarTurn(Direction acceleration) {
-        //changes the current car's velocity
-        PositionVector newVelocity = PositionVector.add(getCarVelocity(activeCarIndex), acceleration.vector);
+        Car car = raceTrack.getCar(activeCarIndex);
+        if (winnerIndex != NO_WINNER || car.isCrashed()) {
+            return;
+        }
+        if (journal != null) {
+            journal.recordTurn(this, activeCarIndex, acceleration);
+        }
+        int carIndex = activeCarIndex;
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        RaceEvents.TurnEvent event = RaceEvents.beginTurn();
+
+        playTurn(car, acceleration);
 
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.carIndex = carIndex;
+                event.acceleration = acceleration.name();
+                event.crashed = car.isCrashed();
+                event.won = winnerIndex == carIndex;
+                event.commit();
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.TURN_NANOS.record(System.nanoTime() - start);
+        }
+    }
+
+    private void playTurn(Car car, Direction acceleration) {
         //Accelerate the current car
-        raceTrack.getCar(activeCarIndex).accelerate(acceleration);
-        PositionVector endPosition = PositionVector.add(getCarPosition(activeCarIndex), newVelocity);
-        List<PositionVector> path = calculatePath(getCarPosition(activeCarIndex), endPosition);
+        car.accelerate(acceleration);
+        PositionVector position = car.getPosition();
+        PositionVector endPosition = PositionVector.add(position, car.getSpeed());
+
         //crashes or passes??
-        for (PositionVector transitionPoint : path) {
-            if (willCarCrash(activeCarIndex, transitionPoint)) {
-                //crashed
-                //move car, update status
-                raceTrack.getCar(activeCarIndex).move();
-                raceTrack.getCar(activeCarIndex).crash();
-                if (isLastCarRemaining()) {
-                    switchToNextActiveCar();
-                    winnerIndex = getCurrentCarIndex();
-                }
-            } else if (crossedFinishLine(transitionPoint)) {
-                winnerIndex = activeCarIndex;
-            } else {
-                raceTrack.getCar(activeCarIndex).move();
+        boolean reachedEnd;
+        int segment = getStaticSegment(activeCarIndex, position.getX(), position.getY(),
+            car.getSpeed().getX(), car.getSpeed().getY());
+        if (segment != NOT_STATIC) {
+            // no finish line and no other car on the way, only walls matter
+            reachedEnd = segment == Track.NO_WALL_HIT;
+            if (!reachedEnd) {
+                long crashPosition = getPathPosition(position.getX(), position.getY(),
+                    endPosition.getX(), endPosition.getY(), segment);
+                turnStepX = PositionVector.packedX(crashPosition);
+                turnStepY = PositionVector.packedY(crashPosition);
+                turnStepCrashed = true;
+            }
+        } else {
+            firstTurnStep = true;
+            reachedEnd = traversePath(position.getX(), position.getY(),
+                endPosition.getX(), endPosition.getY(), turnStepVisitor);
+        }
+        if (reachedEnd) {
+            raceTrack.moveCar(activeCarIndex, endPosition);
+        } else if (turnStepCrashed) {
+            raceTrack.crashCar(activeCarIndex, PositionVector.of(turnStepX, turnStepY));
+            if (isLastCarRemaining()) {
+                switchToNextActiveCar();
+                winnerIndex = getCurrentCarIndex();
             }
+        } else {
+            raceTrack.moveCar(activeCarIndex, PositionVector.of(turnStepX, turnStepY));
+            winnerIndex = activeCarIndex;
+        }
+    }
+
+    /**
+     * Returns the wall test of a path from the segment table of the track, if nothing else can happen on it:
+     * the path doesn't touch the finish line and no other car is in the rectangle around it.
+     *
+     * @return wall hit step of the path (see {@link Track#getWallHitStep(int, int, int, int)}),
+     * or NOT_STATIC if the path has to be walked
+     */
+    private int getStaticSegment(int carIndex, int x, int y, int velocityX, int velocityY) {
+        int segment = raceTrack.getSegment(x, y, velocityX, velocityY);
+        if ((segment & SegmentTable.FINISH_LINE_FLAG) != 0 || raceTrack.isOtherCarInArea(carIndex,
+            Math.min(x, x + velocityX), Math.min(y, y + velocityY),
+            Math.max(x, x + velocityX), Math.max(y, y + velocityY))) {
+            return NOT_STATIC;
+        }
+        return segment;
+    }
+
+    /**
+     * Checks if a car moving from the given position with the given velocity would crash into a wall or another car
+     * on its way, like in {@link #doCarTurn(Direction)}. The finish line is not considered.
+     * Walls are looked up in the segment table of the track (see {@link Track#getWallHitStep(int, int, int, int)}),
+     * the path is only walked if another car is close to it.
+     *
+     * @param carIndex  The zero-based carIndex number
+     * @param x         horizontal start position
+     * @param y         vertical start position
+     * @param velocityX horizontal component of the velocity
+     * @param velocityY vertical component of the velocity
+     * @return true if the car would crash
+     */
+    public boolean willPathCrash(int carIndex, int x, int y, int velocityX, int velocityY) {
+        int endX = x + velocityX;
+        int endY = y + velocityY;
+        if (raceTrack.isOtherCarInArea(carIndex, Math.min(x, endX), Math.min(y, endY),
+            Math.max(x, endX), Math.max(y, endY))) {
+            crashStepCarIndex = carIndex;
+            firstCrashStep = true;
+            return !traversePath(x, y, endX, endY, crashStepVisitor);
+        }
+        return raceTrack.getWallHitStep(x, y, velocityX, velocityY) != Track.NO_WALL_HIT;
+    }
+
+    private boolean visitCrashStep(int x, int y) {
+        if (firstCrashStep) {
+            firstCrashStep = false;
+            return true;
+        }
+        return !willCarCrash(crashStepCarIndex, x, y);
+    }
 
+    /**
+     * Checks a single position on the path of the current car. The start position is skipped.
+     * Stops the traversal at the first crash or finish line crossing and remembers where it happened.
+     */
+    private boolean visitTurnStep(int x, int y) {
+        Config.SpaceType spaceType = raceTrack.getSpaceType(x, y);
+        if (firstTurnStep) {
+            firstTurnStep = false;
+            turnStepSpaceType = spaceType;
+            return true;
+        }
+        turnStepX = x;
+        turnStepY = y;
+        if (willCarCrash(activeCarIndex, x, y)) {
+            turnStepCrashed = true;
+            return false;
         }
+        turnStepCrashed = false;
+        boolean won = crossedFinishLine(turnStepSpaceType, spaceType);
+        turnStepSpaceType = spaceType;
+        return !won;
+    }
 
+    /**
+     * Updates the lap state of the current car for a step from a space of type from to a space of type to.
+     *
+     * @return true if the car wins with this step
+     */
+    private boolean crossedFinishLine(Config.SpaceType from, Config.SpaceType to) {
+        //TODO crash on the finish line?
+        Car car = raceTrack.getCar(activeCarIndex);
+        PositionVector velocity = car.getSpeed();
+        int lapState = updateLapState(from, to, velocity.getX(), velocity.getY(), car.getLapState());
+        if (lapState == LAP_WON) {
+            return true;
+        }
+        car.setLapState(lapState);
+        return false;
     }
 
-    private boolean crossedFinishLine(PositionVector position) {
-        boolean result = false;
-        //crossed?
-        getCarVelocity(activeCarIndex);
-        PositionVector finishVector;
-        switch (raceTrack.getSpaceType(position)) {
+    /**
+     * Applies the finish line rules to a single step of a car on its path.
+     * <ul>
+     *   <li>Entering the finish line in the correct direction wins, unless the car crossed the line in the wrong
+     *       direction before. In that case one reverse crossing is cancelled instead.</li>
+     *   <li>Entering the finish line in the wrong direction adds a reverse crossing.</li>
+     *   <li>Leaving the finish line back to the side the car entered it from undoes the entering.</li>
+     * </ul>
+     * Moving along the finish line has no effect. The lap state of a car holds the number of reverse crossings
+     * and how the car entered the finish line it is currently on; a new car has the lap state 0.
+     *
+     * @param from      space type the car leaves
+     * @param to        space type the car enters
+     * @param velocityX horizontal component of the car's velocity
+     * @param velocityY vertical component of the car's velocity
+     * @param lapState  lap state of the car before the step
+     * @return lap state of the car after the step, or {@link #LAP_WON} if the car wins with this step
+     */
+    static int updateLapState(Config.SpaceType from, Config.SpaceType to, int velocityX, int velocityY, int lapState) {
+        boolean fromFinishLine = Track.isFinishLine(from);
+        boolean toFinishLine = Track.isFinishLine(to);
+        int reverseCrossings = lapState / LAP_ENTRY_STATES;
+        if (!fromFinishLine && toFinishLine) {
+            if (crossesFinishLine(to, velocityX, velocityY)) {
+                if (reverseCrossings == 0) {
+                    return LAP_WON;
+                }
+                return (reverseCrossings - 1) * LAP_ENTRY_STATES + LAP_ENTERED_CORRECT;
+            }
+            if (crossesFinishLine(to, -velocityX, -velocityY)) {
+                return (reverseCrossings + 1) * LAP_ENTRY_STATES + LAP_ENTERED_REVERSE;
+            }
+            return reverseCrossings * LAP_ENTRY_STATES + LAP_NOT_ON_FINISH_LINE;
+        }
+        if (fromFinishLine && !toFinishLine) {
+            int entry = lapState % LAP_ENTRY_STATES;
+            if (entry == LAP_ENTERED_CORRECT && crossesFinishLine(from, -velocityX, -velocityY)) {
+                reverseCrossings++;
+            } else if (entry == LAP_ENTERED_REVERSE && crossesFinishLine(from, velocityX, velocityY)) {
+                reverseCrossings--;
+            }
+            return reverseCrossings * LAP_ENTRY_STATES + LAP_NOT_ON_FINISH_LINE;
+        }
+        return lapState;
+    }
+
+    /**
+     * @param lapState lap state of a car
+     * @return number of times the car crossed the finish line in the wrong direction without crossing it back
+     */
+    static int getReverseCrossings(int lapState) {
+        return lapState / LAP_ENTRY_STATES;
+    }
+
+    /**
+     * Checks if a car moving with the given velocity crosses a finish line space in its correct direction.
+     * The scalar product of the velocity and the direction of the finish line has to be positive,
+     * which for the axis aligned finish lines reduces to the sign of one velocity component.
+     *
+     * @param spaceType space type the car passes
+     * @param velocityX horizontal component of the car's velocity
+     * @param velocityY vertical component of the car's velocity
+     * @return true if the space is a finish line space crossed in the correct direction
+     */
+    static boolean crossesFinishLine(Config.SpaceType spaceType, int velocityX, int velocityY) {
+        switch (spaceType) {
             case FINISH_UP:
-                finishVector = new PositionVector(1, 1);
-                break;
-            case FINISH_RIGHT:
-                finishVector = new PositionVector(1, 0);
-                break;
+                return velocityY < 0;
             case FINISH_DOWN:
-                finishVector = new PositionVector(-1, -1);
-                break;
+                return velocityY > 0;
             case FINISH_LEFT:
-                finishVector = new PositionVector(-1, 0);
-                break;
+                return velocityX < 0;
+            case FINISH_RIGHT:
+                return velocityX > 0;
             default:
-                finishVector = new PositionVector(0, 0);
+                return false;
         }
-        //TODO deal with case: after start, went in the reverse direction, turn around, went in the correct direction.[Lap,Direction]
-        //TODO crash on the finish line?
-        if (!finishVector.equals(new PositionVector(0,0)) && PositionVector.scalarProduct(getCarVelocity(activeCarIndex), finishVector) > 0) {
-            result = true;
-        }
-        //correct direction
-        return result;
     }
 
     private boolean isLastCarRemaining() {
-        //todo
-        return false;
+        int remainingCars = 0;
+        for (Car car : raceTrack.getCars()) {
+            if (!car.isCrashed()) {
+                remainingCars++;
+            }
+        }
+        return remainingCars == 1;
     }
 
     /**
      * Switches to the next car who is still in the game. Skips crashed cars.
      */
     public void switchToNextActiveCar() {
-        activeCarIndex = (activeCarIndex + 1) % raceTrack.getCarCount();
+        int carCount = raceTrack.getCarCount();
+        for (int step = 0; step < carCount; step++) {
+            activeCarIndex = (activeCarIndex + 1) % carCount;
+            if (!raceTrack.getCar(activeCarIndex).isCrashed()) {
+                return;
+            }
+        }
     }
 
 
     /**
      * Returns all of the grid positions in the path between two positions, for use in determining line of sight.
+     * The positions are determined with {@link #traversePath(int, int, int, int, PathVisitor)}.
+     *
+     * @param startPosition Starting position as a PositionVector
+     * @param endPosition   Ending position as a PositionVector
+     * @return Intervening grid positions as a List of PositionVector's, including the starting and ending positions.
+     */
+    public List<PositionVector> calculatePath(PositionVector startPosition, PositionVector endPosition) {
+        List<PositionVector> path = new ArrayList<>();
+        traversePath(startPosition.getX(), startPosition.getY(), endPosition.getX(), endPosition.getY(),
+            (x, y) -> path.add(PositionVector.of(x, y)));
+        return path;
+    }
+
+    /**
+     * Walks all of the grid positions in the path between two positions and passes them to the given visitor,
+     * starting with the start position and ending with the end position.
      * Determine the 'pixels/positions' on a raster/grid using Bresenham's line algorithm.
      * (https://de.wikipedia.org/wiki/Bresenham-Algorithmus)
      * Basic steps are
@@ -214,64 +541,101 @@ public class Game {
      * - for each pixel on the 'faster' axis calculate the position on the 'slower' axis.
      * Direction of the movement has to correctly considered
      *
-     * @param startPosition Starting position as a PositionVector
-     * @param endPosition   Ending position as a PositionVector
-     * @return Intervening grid positions as a List of PositionVector's, including the starting and ending positions.
+     * <p>Unlike {@link #calculatePath(PositionVector, PositionVector)} this does not allocate anything,
+     * and the visitor can stop the traversal at any position (e.g. the first wall, car or finish line space).</p>
+     *
+     * @param startX  horizontal component of the starting position
+     * @param startY  vertical component of the starting position
+     * @param endX    horizontal component of the ending position
+     * @param endY    vertical component of the ending position
+     * @param visitor receives each position on the path
+     * @return true if all positions were visited, false if the visitor stopped the traversal
      */
-    public List<PositionVector> calculatePath(PositionVector startPosition, PositionVector endPosition) {
-        // todo
-        List<PositionVector> path = new ArrayList<>();
-        int diffX = endPosition.getX() - startPosition.getX();
-        int diffY = endPosition.getY() - startPosition.getY();
+    public static boolean traversePath(int startX, int startY, int endX, int endY, PathVisitor visitor) {
+        int diffX = endX - startX;
+        int diffY = endY - startY;
 
         //choose sampling direction
         int distX = Math.abs(diffX);
         int distY = Math.abs(diffY);
+        if (Metrics.ENABLED) {
+            Metrics.PATH_LENGTH.record(Math.max(distX, distY) + 1);
+        }
 
         int dirX = Integer.signum(diffX);
         int dirY = Integer.signum(diffY);
 
         int distanceSlowAxis, distanceFastAxis;
         int parallelStepX, parallelStepY;
-        int diagonalStepX, diagonalStepY;
 
         if (distX > distY) {
             // x axis is the 'fast' direction
             //1,4,5,8 octant
             parallelStepX = dirX;
             parallelStepY = 0;
-            diagonalStepX = dirX;
-            diagonalStepY = dirY;
             distanceFastAxis = distX;
             distanceSlowAxis = distY;
         } else {
             // y axis is the 'fast' direction
             parallelStepX = 0;
             parallelStepY = dirY;
-            diagonalStepX = dirX;
-            diagonalStepY = dirY;
             distanceFastAxis = distY;
-            distanceSlowAxis = distY;
+            distanceSlowAxis = distX;
+        }
+        int x = startX;
+        int y = startY;
+        if (!visitor.visit(x, y)) {
+            return false;
         }
-        int x = startPosition.getX();
-        int y = startPosition.getY();
-        path.add(new PositionVector(x, y));
 
         int error = distanceFastAxis / 2;
         for (int step = 0; step < distanceFastAxis; step++) {
 
             error -= distanceSlowAxis;
             if (error < 0) {
+                // diagonal step
                 error += distanceFastAxis;
-                x += diagonalStepX;
-                y += diagonalStepY;
+                x += dirX;
+                y += dirY;
             } else {
                 x += parallelStepX;
                 y += parallelStepY;
             }
-            path.add(new PositionVector(x, y));
+            if (!visitor.visit(x, y)) {
+                return false;
+            }
         }
-        return path;
+        return true;
+    }
+
+    /**
+     * Returns the position reached after the given number of steps on the path of
+     * {@link #traversePath(int, int, int, int, PathVisitor)}, without walking the path.
+     *
+     * @param startX horizontal component of the starting position
+     * @param startY vertical component of the starting position
+     * @param endX   horizontal component of the ending position
+     * @param endY   vertical component of the ending position
+     * @param step   number of steps from the start, between 0 and the length of the path minus 1
+     * @return the position packed with {@link PositionVector#pack(int, int)}
+     */
+    public static long getPathPosition(int startX, int startY, int endX, int endY, int step) {
+        int distX = Math.abs(endX - startX);
+        int distY = Math.abs(endY - startY);
+        int dirX = Integer.signum(endX - startX);
+        int dirY = Integer.signum(endY - startY);
+        int distanceFastAxis = Math.max(distX, distY);
+        int distanceSlowAxis = Math.min(distX, distY);
+        if (distanceFastAxis == 0) {
+            return PositionVector.pack(startX, startY);
+        }
+        // the error term of traversePath stays in [0, distanceFastAxis), which gives the number of diagonal steps
+        int diagonalSteps = Math.floorDiv(step * distanceSlowAxis - distanceFastAxis / 2 + distanceFastAxis - 1,
+            distanceFastAxis);
+        if (distX > distY) {
+            return PositionVector.pack(startX + step * dirX, startY + diagonalSteps * dirY);
+        }
+        return PositionVector.pack(startX + diagonalSteps * dirX, startY + step * dirY);
     }
 
     /**
@@ -282,24 +646,28 @@ public class Game {
      * @return A boolean indicator if the car would crash with a WALL or another car.
      */
     public boolean willCarCrash(int carIndex, PositionVector position) {
-        return raceTrack.getSpaceType(position) == Config.SpaceType.WALL || isSomeCarHere(position);
+        return willCarCrash(carIndex, position.getX(), position.getY());
     }
 
-    private boolean isSomeCarHere(PositionVector position) {
-        boolean result = false;
-        //back up
-        int realActiveCar = activeCarIndex;
-
-        //switch until you return to the same car, after the loop active car is the same one, that was at the beginning of the function
-        switchToNextActiveCar();
-        while (activeCarIndex != realActiveCar) {
-            //some car on this position?
-            if (position == raceTrack.getCarPos(activeCarIndex)) {
-                result = true;
-            }
-            switchToNextActiveCar();
+    /**
+     * Same as {@link #willCarCrash(int, PositionVector)}, but takes the position as primitive coordinates.
+     * Both checks are single array lookups on the track (space type and car occupancy index),
+     * they don't change the game state and don't allocate.
+     *
+     * @param carIndex The zero-based carIndex number
+     * @param x        horizontal component of the possible crash position
+     * @param y        vertical component of the possible crash position
+     * @return A boolean indicator if the car would crash with a WALL or another car.
+     */
+    public boolean willCarCrash(int carIndex, int x, int y) {
+        if (Metrics.ENABLED) {
+            Metrics.COLLISION_CHECKS.increment();
+        }
+        if (raceTrack.getSpaceType(x, y) == Config.SpaceType.WALL) {
+            return true;
         }
-        return result;
+        int carHere = raceTrack.getCarIndexAt(x, y);
+        return carHere != Track.NO_CAR && carHere != carIndex;
     }
 
 }
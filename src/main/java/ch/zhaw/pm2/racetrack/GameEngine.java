@@ -0,0 +1,194 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Headless game loop. Plays a game to the end without any terminal,
+ * asking the move strategy of the active car for its next move in each turn.
+ */
+public class GameEngine {
+
+    private GameEngine() {
+    }
+
+    /**
+     * Plays a game on the given track.
+     *
+     * @param track      race track, its cars are moved by the game
+     * @param strategies one move strategy per car, in car index order
+     * @param turnLimit  maximum number of turns (moves of a single car) before the game is stopped
+     * @return the result of the game
+     */
+    public static GameResult run(Track track, List<MoveStrategy> strategies, int turnLimit) {
+        return run(new Game(track), strategies, turnLimit);
+    }
+
+    /**
+     * Plays the given game until there is a winner or the turn limit is reached.
+     * A strategy returning null is treated as {@link Direction#NONE}.
+     *
+     * @param game       game to play
+     * @param strategies one move strategy per car, in car index order
+     * @param turnLimit  maximum number of turns (moves of a single car) before the game is stopped
+     * @return the result of the game
+     * @throws IllegalArgumentException if the number of strategies doesn't match the number of cars
+     */
+    public static GameResult run(Game game, List<MoveStrategy> strategies, int turnLimit) {
+        Track track = game.getTrack();
+        int carCount = track.getCarCount();
+        if (strategies.size() != carCount) {
+            throw new IllegalArgumentException("Expected " + carCount + " strategies, got " + strategies.size());
+        }
+        int turns = 0;
+        while (game.getWinner() == Game.NO_WINNER && turns < turnLimit) {
+            Direction move = nextMove(strategies.get(game.getCurrentCarIndex()), game.getCurrentCarIndex());
+            game.doCarTurn(move == null ? Direction.NONE : move);
+            turns++;
+            if (game.getWinner() == Game.NO_WINNER) {
+                game.switchToNextActiveCar();
+            }
+        }
+        return createResult(game, turns);
+    }
+
+    /**
+     * Plays the given game until there is a winner or the turn limit is reached, giving each move a time budget.
+     * Every strategy is created for its own copy of the game and asked in the background, see
+     * {@link SnapshotMoveStrategy}. If a move isn't ready within the time budget, the best move so far of the
+     * strategy is played, or the default move if the strategy has none. The late call is stale: the car plays the
+     * default move until it is done, then its move is dropped and the strategy is asked again for the current state.
+     * A strategy returning null is treated as {@link Direction#NONE}.
+     *
+     * @param game               game to play
+     * @param strategyFactories  one factory per car, in car index order, creating the move strategy of the car for
+     *                           a game (the copy the strategy plays on)
+     * @param turnLimit          maximum number of turns (moves of a single car) before the game is stopped
+     * @param timeBudgetMillis   time each strategy has for a move
+     * @param defaultMove        move played when a strategy runs out of time without a move,
+     *                           e.g. {@link Direction#NONE}
+     * @return the result of the game
+     * @throws IllegalArgumentException if the number of strategies doesn't match the number of cars
+     * @throws IllegalStateException    if a strategy fails
+     */
+    public static GameResult run(Game game, List<Function<Game, MoveStrategy>> strategyFactories, int turnLimit,
+                                 long timeBudgetMillis, Direction defaultMove) {
+        Track track = game.getTrack();
+        int carCount = track.getCarCount();
+        if (strategyFactories.size() != carCount) {
+            throw new IllegalArgumentException("Expected " + carCount + " strategies, got " + strategyFactories.size());
+        }
+        List<SnapshotMoveStrategy> strategies = new ArrayList<>(carCount);
+        for (Function<Game, MoveStrategy> strategyFactory : strategyFactories) {
+            strategies.add(new SnapshotMoveStrategy(game, strategyFactory));
+        }
+        // per car, the call which ran out of time and is still running
+        List<CompletableFuture<Direction>> staleMoves = new ArrayList<>(Collections.nCopies(carCount, null));
+        int turns = 0;
+        while (game.getWinner() == Game.NO_WINNER && turns < turnLimit) {
+            int carIndex = game.getCurrentCarIndex();
+            Direction move = nextMove(strategies.get(carIndex), carIndex, timeBudgetMillis, defaultMove, staleMoves);
+            game.doCarTurn(move == null ? Direction.NONE : move);
+            turns++;
+            if (game.getWinner() == Game.NO_WINNER) {
+                game.switchToNextActiveCar();
+            }
+        }
+        return createResult(game, turns);
+    }
+
+    /**
+     * Asks a strategy for its next move and records how long it took (see {@link Metrics} and {@link RaceEvents}).
+     */
+    private static Direction nextMove(MoveStrategy strategy, int carIndex) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        RaceEvents.StrategyMoveEvent event = RaceEvents.beginStrategyMove();
+        Direction move = strategy.nextMove();
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.strategy = strategy.getClass().getSimpleName();
+                event.carIndex = carIndex;
+                event.move = String.valueOf(move);
+                event.commit();
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.STRATEGY_NANOS.record(System.nanoTime() - start);
+        }
+        return move;
+    }
+
+    /**
+     * Waits for the next move of an asynchronous strategy at most for the time budget and records
+     * how long it took and whether the time ran out. While a stale call of the car is running, the strategy
+     * is not asked and the default move is played.
+     */
+    private static Direction nextMove(SnapshotMoveStrategy strategy, int carIndex, long timeBudgetMillis,
+                                      Direction defaultMove, List<CompletableFuture<Direction>> staleMoves) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        RaceEvents.StrategyMoveEvent event = RaceEvents.beginStrategyMove();
+        Direction move;
+        boolean timedOut = true;
+        CompletableFuture<Direction> staleMove = staleMoves.get(carIndex);
+        if (staleMove != null && !staleMove.isDone()) {
+            move = defaultMove;
+        } else {
+            // the result of a stale call is dropped, it was chosen for an earlier state of the game
+            staleMoves.set(carIndex, null);
+            CompletableFuture<Direction> pendingMove = strategy.nextMove(timeBudgetMillis);
+            try {
+                move = pendingMove.get(timeBudgetMillis, TimeUnit.MILLISECONDS);
+                timedOut = false;
+            } catch (TimeoutException e) {
+                staleMoves.set(carIndex, pendingMove);
+                Direction bestMoveSoFar = strategy.bestMoveSoFar();
+                move = bestMoveSoFar == null ? defaultMove : bestMoveSoFar;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                staleMoves.set(carIndex, pendingMove);
+                move = defaultMove;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Strategy of car " + carIndex + " failed", e.getCause());
+            }
+        }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.strategy = strategy.getName();
+                event.carIndex = carIndex;
+                event.move = String.valueOf(move);
+                event.timedOut = timedOut;
+                event.commit();
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.STRATEGY_NANOS.record(System.nanoTime() - start);
+            if (timedOut) {
+                Metrics.STRATEGY_TIMEOUTS.increment();
+            }
+        }
+        return move;
+    }
+
+    private static GameResult createResult(Game game, int turns) {
+        Track track = game.getTrack();
+        boolean[] crashed = new boolean[track.getCarCount()];
+        for (int carIndex = 0; carIndex < crashed.length; carIndex++) {
+            crashed[carIndex] = track.getCar(carIndex).isCrashed();
+        }
+        int winner = game.getWinner();
+        char winnerId = winner == Game.NO_WINNER ? ' ' : track.getCarId(winner);
+        return new GameResult(winner, winnerId, turns, crashed);
+    }
+}
@@ -0,0 +1,68 @@
+package ch.zhaw.pm2.racetrack;
+
+/**
+ * Outcome of a game played by the {@link GameEngine}.
+ */
+public class GameResult {
+    private final int winnerIndex;
+    private final char winnerId;
+    private final int turns;
+    private final boolean[] crashed;
+
+    public GameResult(int winnerIndex, char winnerId, int turns, boolean[] crashed) {
+        this.winnerIndex = winnerIndex;
+        this.winnerId = winnerId;
+        this.turns = turns;
+        this.crashed = crashed.clone();
+    }
+
+    /**
+     * @return index of the winning car, or {@link Game#NO_WINNER} if the turn limit was reached
+     */
+    public int getWinnerIndex() {
+        return winnerIndex;
+    }
+
+    /**
+     * @return id of the winning car, only meaningful if {@link #hasWinner()} is true
+     */
+    public char getWinnerId() {
+        return winnerId;
+    }
+
+    public boolean hasWinner() {
+        return winnerIndex != Game.NO_WINNER;
+    }
+
+    /**
+     * @return number of turns (moves of a single car) played
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    public int getCarCount() {
+        return crashed.length;
+    }
+
+    public boolean isCrashed(int carIndex) {
+        return crashed[carIndex];
+    }
+
+    public int getCrashedCarCount() {
+        int count = 0;
+        for (boolean carCrashed : crashed) {
+            if (carCrashed) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return hasWinner()
+            ? "Car " + winnerId + " won after " + turns + " turns"
+            : "No winner after " + turns + " turns";
+    }
+}
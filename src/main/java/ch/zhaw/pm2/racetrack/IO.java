@@ -1,29 +1,97 @@
 package ch.zhaw.pm2.racetrack;
-import org.beryx.textio.*;
-import org.beryx.textio.swing.SwingTextTerminal;
 
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Input and output of the game on a {@link Terminal}, by default the terminal selected at startup
+ * (see {@link Terminal#getDefault()}).
+ */
 public class IO {
-    private static TextIO textIO = TextIoFactory.getTextIO();
-    private static TextTerminal<SwingTextTerminal> textTerminal = (SwingTextTerminal) textIO.getTextTerminal();
+    private final Terminal terminal;
+    private boolean trackPrinted = false;
+    private int trackLines;
 
     public IO() {
+        this(Terminal.getDefault());
+    }
 
+    IO(Terminal terminal) {
+        this.terminal = terminal;
     }
 
     public void print(String output){
-        textTerminal.print(output);
+        terminal.print(output);
+    }
+
+    /**
+     * Prints the track with its cars. The first call prints the track at the current end of the terminal,
+     * later calls update it, but only if a car moved. The text of the track comes from the buffer of the renderer,
+     * see {@link TrackRenderer}. Everything printed after the track is removed, then
+     * <ul>
+     *     <li>if the terminal {@link Terminal#supportsCursorAddressing()}, only the spaces which changed are
+     *     overwritten,</li>
+     *     <li>if the terminal {@link Terminal#supportsLineBookmarks()}, the track is printed again from its first
+     *     changed row,</li>
+     *     <li>otherwise the whole track is printed again in a single write.</li>
+     * </ul>
+     *
+     * @param renderer renderer of the track to print
+     */
+    public void printTrack(TrackRenderer renderer) {
+        boolean changed = renderer.update();
+        if (trackPrinted && !changed) {
+            return;
+        }
+        if (!trackPrinted) {
+            terminal.setBookmark();
+            trackPrinted = true;
+            trackLines = renderer.getRowCount();
+            if (terminal.supportsLineBookmarks()) {
+                printRows(renderer, 0);
+            } else {
+                terminal.print(renderer.drawFrame());
+            }
+        } else if (terminal.supportsCursorAddressing()) {
+            terminal.clearAfterBookmark(trackLines);
+            renderer.drawChanges((x, y, character) -> terminal.printAtBookmark(y, x, String.valueOf(character)));
+        } else if (terminal.supportsLineBookmarks()) {
+            int firstRow = renderer.getFirstChangedRow();
+            terminal.resetToLineBookmark(firstRow);
+            printRows(renderer, firstRow);
+        } else {
+            terminal.resetToBookmark();
+            terminal.print(renderer.drawFrame());
+        }
+    }
+
+    private void printRows(TrackRenderer renderer, int fromRow) {
+        renderer.drawRows(fromRow, (y, row) -> {
+            terminal.setLineBookmark(y);
+            terminal.print(row);
+        });
+    }
+
+    /**
+     * Writes buffered output to the screen, e.g. at the end of a turn without input.
+     */
+    public void flush() {
+        terminal.flush();
     }
 
     public int intInputReader(int min, int max, String output) {
-        return textIO.newIntInputReader().withMinVal(min).withMaxVal(max).read(output);
+        return terminal.readInt(min, max, output);
     }
 
     public char charInputReader(String output) {
-        return textIO.newCharInputReader().read(output);
+        return terminal.readChar(output);
     }
 
     public boolean booleanInputReader(String output) {
-        return textIO.newBooleanInputReader().read(output);
+        return terminal.readBoolean(output);
+    }
+
+    public Direction directionInputReader(String output) {
+        return terminal.readEnum(Direction.class, output);
     }
 
 }
@@ -9,7 +9,7 @@ import java.io.File;
  * Error Types:
  *   1: not all track lines have the same length</li>
  *   2: the file contains no track lines (grid height is 0)</li>
- *   3: the file contains more than {@link Config#MAX_CARS} cars</li>
+ *   3: the file contains more than {@link Config#MAX_CARS} cars or a car id is used twice</li>
  *
  * @author corrooli
  * @version 200226
@@ -18,12 +18,16 @@ import java.io.File;
 public class InvalidTrackFormatException extends Exception {
     private File trackFile;
     private ErrorType errorType;
-    //TODO: define error types via enum which are returned by this Exception class
 
-    public InvalidTrackFormatException(File trackFile, ErrorType errorType){ this.trackFile = trackFile; }
+    public InvalidTrackFormatException(File trackFile, ErrorType errorType){
+        this.trackFile = trackFile;
+        this.errorType = errorType;
+    }
 
     public File getTrackFile() { return trackFile; }
 
+    public ErrorType getErrorType() { return errorType; }
+
     public String printErrorType() {
         String errorMessage;
         switch(errorType){
@@ -0,0 +1,89 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive long values using open addressing with linear probing.
+ * Used by search strategies to remember visited states without boxing them.
+ * The value -1 is reserved and can not be stored.
+ */
+class LongHashSet {
+    private static final long EMPTY = -1L;
+    private static final double MAX_LOAD = 0.5;
+
+    private long[] slots;
+    private int mask;
+    private int shift;
+    private int size;
+
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        slots = new long[capacity];
+        Arrays.fill(slots, EMPTY);
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value value to add, must not be -1
+     * @return true if the value was not yet in the set
+     */
+    boolean add(long value) {
+        int index = slot(value);
+        while (slots[index] != EMPTY) {
+            if (slots[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        if (++size > slots.length * MAX_LOAD) {
+            grow();
+        }
+        return true;
+    }
+
+    boolean contains(long value) {
+        int index = slot(value);
+        while (slots[index] != EMPTY) {
+            if (slots[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+    }
+
+    private int slot(long value) {
+        // the high bits of the product are the well mixed ones
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void grow() {
+        long[] oldSlots = slots;
+        slots = new long[oldSlots.length * 2];
+        Arrays.fill(slots, EMPTY);
+        mask = slots.length - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+        for (long value : oldSlots) {
+            if (value != EMPTY) {
+                int index = slot(value);
+                while (slots[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.AsyncMoveStrategy;
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Chooses the acceleration of a car with a Monte Carlo tree search.
+ *
+ * <p>Each move gets a time budget. Within the budget, several workers search at the same time, each with its own
+ * search tree on its own copy of the game (see {@link Game#copy()}), going back to the current state with
+ * {@link Game#restore(long[])} before every iteration. An iteration selects a path through the tree with UCB1
+ * (on the mean of the average and the best score of a node, as the best score is what the car can reach),
+ * adds one new node and plays a rollout from it: the car mostly accelerates towards the space with the lowest
+ * lap distance (see {@link Track#getLapDistances()}), sometimes randomly, but only if it can still brake
+ * to a stop afterwards. Only this car moves in the search,
+ * other cars are obstacles at their current position.
+ * A win scores more the fewer turns it takes. A rollout without a win scores by the lap distance it reached,
+ * much less if the car crashed.</p>
+ *
+ * <p>The workers merge the visits and best scores of the nine first moves into shared atomic arrays, without locks.
+ * The move with the best score found by any worker is played, ties go to the move visited more often.
+ * Workers run on virtual threads if the Java runtime has them, and on the common fork join pool otherwise.
+ * The project is compiled for Java 11 (see build.gradle), so the virtual thread executor is looked up
+ * reflectively.</p>
+ *
+ * <p>As an {@link AsyncMoveStrategy}, the search runs in the background with the time budget of the game engine,
+ * and the best move of the search so far can be read while it runs.</p>
+ */
+public class MONTE_CARLO_STRATEGY implements MoveStrategy, AsyncMoveStrategy {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 50;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int MAX_DEPTH = 60;
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final double RANDOM_MOVE_PROBABILITY = 0.1;
+    private static final long SCORE_SCALE = 1_000_000;
+    // scores of a rollout without a win, weighted by the progress made; a win scores at least PROGRESS_WEIGHT
+    private static final double PROGRESS_WEIGHT = 0.5;
+    private static final double CRASH_WEIGHT = 0.1;
+    // the search stops this long before the end of the time budget (at most after half of it), so the workers
+    // are done and the move is ready when the game engine stops waiting for it
+    private static final long FINISH_MARGIN_NANOS = 1_000_000;
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private final Game game;
+    private final int carIndex;
+    private final long timeBudgetNanos;
+    private final int workers;
+    private final AtomicLongArray rootVisits = new AtomicLongArray(DIRECTIONS.length);
+    private final AtomicLongArray rootBestScores = new AtomicLongArray(DIRECTIONS.length);
+
+    /**
+     * Creates a strategy with the default time budget, using all available cores.
+     *
+     * @param game     game the car plays in
+     * @param carIndex zero-based index of the car controlled by this strategy
+     */
+    public MONTE_CARLO_STRATEGY(Game game, int carIndex) {
+        this(game, carIndex, DEFAULT_TIME_BUDGET_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param game             game the car plays in
+     * @param carIndex         zero-based index of the car controlled by this strategy
+     * @param timeBudgetMillis time to search for each move
+     * @param workers          number of searches running at the same time
+     */
+    public MONTE_CARLO_STRATEGY(Game game, int carIndex, long timeBudgetMillis, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed");
+        }
+        this.game = game;
+        this.carIndex = carIndex;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000;
+        this.workers = workers;
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            // Java 21 and later, not in the Java 11 API the project is compiled against
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return ForkJoinPool.commonPool();
+        }
+    }
+
+    /**
+     * Searches for the time budget and returns the best move found.
+     * Must be called when the car of this strategy is the current car of the game.
+     *
+     * @return the best move found, {@link Direction#NONE} if the car is crashed or the game is over
+     */
+    @Override
+    public Direction nextMove() {
+        try {
+            return nextMove(timeBudgetNanos / 1_000_000).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Starts a search for the given time budget instead of the budget of this strategy.
+     * The future is completed with the best move found when all workers are done.
+     *
+     * @return the best move found, {@link Direction#NONE} if the car is crashed or the game is over
+     */
+    @Override
+    public CompletableFuture<Direction> nextMove(long timeBudgetMillis) {
+        if (game.getWinner() != Game.NO_WINNER || game.getTrack().getCar(carIndex).isCrashed()) {
+            return CompletableFuture.completedFuture(Direction.NONE);
+        }
+        for (int move = 0; move < DIRECTIONS.length; move++) {
+            rootVisits.set(move, 0);
+            rootBestScores.set(move, 0);
+        }
+        long budgetNanos = timeBudgetMillis * 1_000_000;
+        long deadline = System.nanoTime() + Math.max(budgetNanos / 2, budgetNanos - FINISH_MARGIN_NANOS);
+        CompletableFuture<?>[] searches = new CompletableFuture<?>[workers];
+        for (int worker = 0; worker < workers; worker++) {
+            Game searchGame = game.copy();
+            searches[worker] = CompletableFuture.runAsync(() -> new Search(searchGame).run(deadline), EXECUTOR);
+        }
+        return CompletableFuture.allOf(searches).thenApply(done -> bestMove());
+    }
+
+    /**
+     * Returns the best move of the running search, from the results the workers merged so far.
+     *
+     * @return the best move so far, null if no iteration has finished yet
+     */
+    @Override
+    public Direction bestMoveSoFar() {
+        for (int move = 0; move < DIRECTIONS.length; move++) {
+            if (rootVisits.get(move) > 0) {
+                return bestMove();
+            }
+        }
+        return null;
+    }
+
+    private Direction bestMove() {
+        int best = Direction.NONE.ordinal();
+        for (int move = 0; move < DIRECTIONS.length; move++) {
+            long score = rootBestScores.get(move);
+            long bestScore = rootBestScores.get(best);
+            if (score > bestScore || score == bestScore && rootVisits.get(move) > rootVisits.get(best)) {
+                best = move;
+            }
+        }
+        return DIRECTIONS[best];
+    }
+
+    /**
+     * @param move first move
+     * @return number of iterations which started with the given move in the last search
+     */
+    long getVisits(Direction move) {
+        return rootVisits.get(move.ordinal());
+    }
+
+    /**
+     * Node of the search tree of a single worker, reached by the moves on the path from the root.
+     */
+    private static class Node {
+        private final Node[] children = new Node[DIRECTIONS.length];
+        private int expandedChildren;
+        private int visits;
+        private double score;
+        private double bestScore;
+        private boolean terminal;
+        private double terminalScore;
+    }
+
+    /**
+     * Search of a single worker. Not shared between threads.
+     */
+    private class Search {
+        private final Game searchGame;
+        private final Track track;
+        private final Car car;
+        private final long[] rootState;
+        private final Node root = new Node();
+        private final Node[] path = new Node[MAX_DEPTH + 1];
+        private final SplittableRandom random = new SplittableRandom();
+        private final int startLapDistance;
+        private final PathVisitor finishCheck = this::visitFinishCheck;
+        private boolean finishLineReached;
+        private int finishCheckVelocityX;
+        private int finishCheckVelocityY;
+
+        Search(Game searchGame) {
+            this.searchGame = searchGame;
+            this.track = searchGame.getTrack();
+            this.car = track.getCar(carIndex);
+            this.rootState = searchGame.snapshot();
+            this.startLapDistance = Math.max(1, lapDistance());
+        }
+
+        /**
+         * Iterates until the deadline, at least once, so a worker which starts late still adds to the result.
+         */
+        void run(long deadline) {
+            do {
+                iterate();
+            } while (System.nanoTime() < deadline);
+        }
+
+        private void iterate() {
+            searchGame.restore(rootState);
+            Node node = root;
+            int depth = 0;
+            int firstMove = -1;
+            path[0] = root;
+            // selection
+            while (!node.terminal && node.expandedChildren == DIRECTIONS.length && depth < MAX_DEPTH) {
+                int move = selectChild(node);
+                firstMove = depth == 0 ? move : firstMove;
+                searchGame.doCarTurn(DIRECTIONS[move]);
+                node = node.children[move];
+                path[++depth] = node;
+            }
+            double score;
+            if (node.terminal) {
+                score = node.terminalScore;
+            } else if (depth < MAX_DEPTH) {
+                // expansion of the next child, in move order
+                int move = node.expandedChildren++;
+                firstMove = depth == 0 ? move : firstMove;
+                searchGame.doCarTurn(DIRECTIONS[move]);
+                Node child = new Node();
+                node.children[move] = child;
+                node = child;
+                path[++depth] = node;
+                if (isFinished()) {
+                    child.terminal = true;
+                    child.terminalScore = score(depth);
+                    score = child.terminalScore;
+                } else {
+                    score = rollout(depth);
+                }
+            } else {
+                score = score(depth);
+            }
+            // back propagation
+            for (int index = 0; index <= depth; index++) {
+                path[index].visits++;
+                path[index].score += score;
+                path[index].bestScore = Math.max(path[index].bestScore, score);
+            }
+            long scaledScore = (long) (score * SCORE_SCALE);
+            rootVisits.incrementAndGet(firstMove);
+            rootBestScores.accumulateAndGet(firstMove, scaledScore, Math::max);
+        }
+
+        private int selectChild(Node node) {
+            double logVisits = Math.log(node.visits);
+            int best = 0;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int move = 0; move < DIRECTIONS.length; move++) {
+                Node child = node.children[move];
+                double value = (child.score / child.visits + child.bestScore) / 2
+                    + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = move;
+                }
+            }
+            return best;
+        }
+
+        private double rollout(int depth) {
+            while (depth < MAX_DEPTH && !isFinished()) {
+                searchGame.doCarTurn(random.nextDouble() < RANDOM_MOVE_PROBABILITY ? randomSafeMove() : greedyMove());
+                depth++;
+            }
+            return score(depth);
+        }
+
+        /**
+         * @return an acceleration which wins, or else the acceleration which takes the car to the space with the
+         * lowest lap distance, among the accelerations after which the car can still stop
+         * (see {@link #isSafe(Direction)})
+         */
+        private Direction greedyMove() {
+            int x = car.getPosition().getX();
+            int y = car.getPosition().getY();
+            boolean nearFinish = track.getLapDistance(x, y) <= Math.abs(car.getSpeed().getX())
+                + Math.abs(car.getSpeed().getY()) + 2;
+            Direction best = Direction.NONE;
+            int bestDistance = Track.UNREACHABLE;
+            for (Direction direction : DIRECTIONS) {
+                int velocityX = car.getSpeed().getX() + direction.vector.getX();
+                int velocityY = car.getSpeed().getY() + direction.vector.getY();
+                int distance = nearFinish && reachesFinishLine(x, y, velocityX, velocityY)
+                    ? 0 : track.getLapDistance(x + velocityX, y + velocityY);
+                if (distance < bestDistance && (distance == 0 || isSafe(direction))) {
+                    bestDistance = distance;
+                    best = direction;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Checks if a move with the given velocity enters the finish line in its correct direction before it
+         * hits a wall or a car. Doesn't check the lap state, so the move may still not win.
+         */
+        private boolean reachesFinishLine(int x, int y, int velocityX, int velocityY) {
+            finishLineReached = false;
+            finishCheckVelocityX = velocityX;
+            finishCheckVelocityY = velocityY;
+            Game.traversePath(x, y, x + velocityX, y + velocityY, finishCheck);
+            return finishLineReached;
+        }
+
+        private boolean visitFinishCheck(int x, int y) {
+            if (searchGame.willCarCrash(carIndex, x, y)) {
+                return false;
+            }
+            Config.SpaceType spaceType = track.getSpaceType(x, y);
+            finishLineReached = Game.crossesFinishLine(spaceType, finishCheckVelocityX, finishCheckVelocityY);
+            return !finishLineReached && !Track.isFinishLine(spaceType);
+        }
+
+        private Direction randomSafeMove() {
+            int offset = random.nextInt(DIRECTIONS.length);
+            for (int index = 0; index < DIRECTIONS.length; index++) {
+                Direction direction = DIRECTIONS[(offset + index) % DIRECTIONS.length];
+                if (isSafe(direction)) {
+                    return direction;
+                }
+            }
+            return Direction.NONE;
+        }
+
+        /**
+         * Checks if the car survives the given acceleration and can then brake to a stop without crashing.
+         */
+        private boolean isSafe(Direction acceleration) {
+            int x = car.getPosition().getX();
+            int y = car.getPosition().getY();
+            int velocityX = car.getSpeed().getX() + acceleration.vector.getX();
+            int velocityY = car.getSpeed().getY() + acceleration.vector.getY();
+            while (true) {
+                if (searchGame.willPathCrash(carIndex, x, y, velocityX, velocityY)) {
+                    return false;
+                }
+                if (velocityX == 0 && velocityY == 0) {
+                    return true;
+                }
+                x += velocityX;
+                y += velocityY;
+                velocityX -= Integer.signum(velocityX);
+                velocityY -= Integer.signum(velocityY);
+            }
+        }
+
+        private boolean isFinished() {
+            return car.isCrashed() || searchGame.getWinner() != Game.NO_WINNER;
+        }
+
+        /**
+         * @return score of the current state after the given number of turns, between 0 and 1
+         */
+        private double score(int depth) {
+            if (searchGame.getWinner() == carIndex) {
+                return PROGRESS_WEIGHT + (1 - PROGRESS_WEIGHT) * (MAX_DEPTH - depth + 1) / MAX_DEPTH;
+            }
+            double progress = 1 - (double) Math.min(lapDistance(), 2 * startLapDistance) / (2 * startLapDistance);
+            return car.isCrashed() ? CRASH_WEIGHT * progress : PROGRESS_WEIGHT * progress;
+        }
+
+        private int lapDistance() {
+            PositionVector position = car.getPosition();
+            return track.getLapDistance(position.getX(), position.getY());
+        }
+    }
+}
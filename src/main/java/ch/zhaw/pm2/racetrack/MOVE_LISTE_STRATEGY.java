@@ -2,11 +2,195 @@ package ch.zhaw.pm2.racetrack;
 
 import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
 
-public class MOVE_LISTE_STRATEGY implements MoveStrategy {
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Replays the moves of a move file, one {@link Direction} name (e.g. {@code UP_LEFT}) per line.
+ * Empty lines and lines starting with {@code #} are skipped, names are not case sensitive.
+ * When all moves are played, the car doesn't move anymore.
+ *
+ * <p>The file is read lazily through a buffered {@link FileChannel}: only the next block of moves is parsed,
+ * and each move is stored as the ordinal of its direction in a single byte. The memory needed doesn't depend on
+ * the length of the file. The file is closed when its end is reached or {@link #close()} is called.</p>
+ *
+ * <p>A line which isn't a direction name stops the parsing: the moves before it are still played, the move which
+ * would be read from it throws an {@link IllegalArgumentException}, as do all following moves.</p>
+ */
+public class MOVE_LISTE_STRATEGY implements MoveStrategy, Closeable {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final byte[][] DIRECTION_NAMES = new byte[DIRECTIONS.length][];
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final int MOVE_BLOCK_SIZE = 1024;
+    private static final byte COMMENT = '#';
+
+    static {
+        for (Direction direction : DIRECTIONS) {
+            DIRECTION_NAMES[direction.ordinal()] = direction.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final File moveFile;
+    private FileChannel channel;
+    private final ByteBuffer buffer;
+
+    // parsed moves, as Direction ordinals
+    private final byte[] moves = new byte[MOVE_BLOCK_SIZE];
+    private int moveCount;
+    private int moveIndex;
+    private String invalidLine;
+
+    // parser state of the current line
+    private final byte[] line = new byte[maxNameLength()];
+    private int lineLength;
+    private int lineNumber = 1;
+    private boolean lineIgnored;
+    private boolean lineTooLong;
+
+    /**
+     * @param moveFile file containing one direction name per line
+     * @throws IOException if the file couldn't be found or opened
+     */
+    public MOVE_LISTE_STRATEGY(File moveFile) throws IOException {
+        this.moveFile = moveFile;
+        channel = new FileInputStream(moveFile).getChannel();
+        buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        buffer.flip();
+    }
+
+    /**
+     * @return the next move of the file, or {@link Direction#NONE} if all moves are played
+     * @throws UncheckedIOException     if the file couldn't be read
+     * @throws IllegalArgumentException if the move would be read from a line which isn't a direction name
+     */
     @Override
-    public PositionVector.Direction nextMove() {
+    public Direction nextMove() {
+        if (moveIndex == moveCount && invalidLine == null) {
+            readMoves();
+        }
+        if (moveIndex < moveCount) {
+            return DIRECTIONS[moves[moveIndex++]];
+        }
+        if (invalidLine != null) {
+            throw new IllegalArgumentException(invalidLine);
+        }
+        return Direction.NONE;
+    }
+
+    /**
+     * Parses the next block of moves from the file. Stops when the block is full, the end of the file is reached
+     * or a line isn't a direction name.
+     */
+    private void readMoves() {
+        moveCount = 0;
+        moveIndex = 0;
+        try {
+            while (moveCount < moves.length && channel != null && invalidLine == null) {
+                if (!buffer.hasRemaining()) {
+                    buffer.clear();
+                    int read = channel.read(buffer);
+                    buffer.flip();
+                    if (read < 0) {
+                        endLine();
+                        close();
+                        break;
+                    }
+                }
+                while (buffer.hasRemaining() && moveCount < moves.length && invalidLine == null) {
+                    readByte(buffer.get());
+                }
+            }
+            if (invalidLine != null) {
+                close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Move file " + moveFile + " could not be read", e);
+        }
+    }
+
+    private void readByte(byte value) {
+        switch (value) {
+            case '\n':
+                endLine();
+                lineNumber++;
+                break;
+            case '\r':
+            case ' ':
+            case '\t':
+                break;
+            default:
+                if (lineLength == 0 && value == COMMENT) {
+                    lineIgnored = true;
+                } else if (lineLength < line.length) {
+                    line[lineLength++] = value >= 'a' && value <= 'z' ? (byte) (value - 'a' + 'A') : value;
+                } else {
+                    lineTooLong = true;
+                }
+        }
+    }
+
+    private void endLine() {
+        if (lineLength > 0 && !lineIgnored) {
+            Direction direction = findDirection();
+            if (direction != null) {
+                moves[moveCount++] = (byte) direction.ordinal();
+            } else {
+                invalidLine = "Invalid move in line " + lineNumber + " of " + moveFile + ": "
+                    + new String(line, 0, lineLength, StandardCharsets.US_ASCII) + (lineTooLong ? "..." : "");
+            }
+        }
+        lineLength = 0;
+        lineIgnored = false;
+        lineTooLong = false;
+    }
+
+    private Direction findDirection() {
+        if (!lineTooLong) {
+            for (int ordinal = 0; ordinal < DIRECTION_NAMES.length; ordinal++) {
+                byte[] name = DIRECTION_NAMES[ordinal];
+                if (name.length == lineLength && equalsLine(name)) {
+                    return DIRECTIONS[ordinal];
+                }
+            }
+        }
         return null;
     }
 
+    private boolean equalsLine(byte[] name) {
+        for (int index = 0; index < name.length; index++) {
+            if (name[index] != line[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int maxNameLength() {
+        int maxLength = 0;
+        for (Direction direction : Direction.values()) {
+            maxLength = Math.max(maxLength, direction.name().length());
+        }
+        return maxLength;
+    }
+
+    /**
+     * Closes the move file. Moves which are already parsed are still played.
+     *
+     * @throws IOException if the file couldn't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
 }
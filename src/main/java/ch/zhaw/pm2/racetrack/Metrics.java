@@ -0,0 +1,143 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process metrics of the game engine, for batch runs and benchmarks.
+ *
+ * <p>Metrics are only collected if the system property {@code racetrack.metrics} is {@code true}
+ * (e.g. {@code -Dracetrack.metrics=true}). The flag is a constant, so with metrics disabled the JIT removes
+ * the instrumentation from the hot paths. All values are counted in {@link LongAdder}s, which are striped per
+ * thread, so parallel games don't contend on them. Call {@link #report()} at the end of a run to read them.</p>
+ *
+ * <p>See {@link RaceEvents} for the Java Flight Recorder events of the same code paths.</p>
+ */
+public class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("racetrack.metrics");
+
+    /** Duration of {@link Game#doCarTurn(PositionVector.Direction)} in nanoseconds. */
+    public static final Histogram TURN_NANOS = new Histogram("turn latency", "ns");
+    /** Duration of a {@link ch.zhaw.pm2.racetrack.strategy.MoveStrategy#nextMove()} call in nanoseconds. */
+    public static final Histogram STRATEGY_NANOS = new Histogram("strategy decision", "ns");
+    /** Duration of parsing a track file in {@link TrackBuilder} in nanoseconds. */
+    public static final Histogram TRACK_LOAD_NANOS = new Histogram("track load", "ns");
+    /** Number of grid positions of each path walked by {@link Game#traversePath(int, int, int, int, PathVisitor)}. */
+    public static final Histogram PATH_LENGTH = new Histogram("path length", "spaces");
+    /** Number of {@link Game#willCarCrash(int, int, int)} checks. */
+    public static final LongAdder COLLISION_CHECKS = new LongAdder();
+    /** Number of moves played without an answer of the strategy, as its time ran out (see {@link GameEngine}). */
+    public static final LongAdder STRATEGY_TIMEOUTS = new LongAdder();
+
+    private static final Histogram[] HISTOGRAMS = {TURN_NANOS, STRATEGY_NANOS, TRACK_LOAD_NANOS, PATH_LENGTH};
+
+    private Metrics() {
+    }
+
+    /**
+     * Resets all metrics, e.g. after a warm up.
+     */
+    public static void reset() {
+        for (Histogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        COLLISION_CHECKS.reset();
+        STRATEGY_TIMEOUTS.reset();
+    }
+
+    /**
+     * @return all metrics as text, one line per metric
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        for (Histogram histogram : HISTOGRAMS) {
+            report.append(histogram).append(System.lineSeparator());
+        }
+        report.append("collision checks: ").append(COLLISION_CHECKS.sum()).append(System.lineSeparator());
+        report.append("strategy timeouts: ").append(STRATEGY_TIMEOUTS.sum()).append(System.lineSeparator());
+        return report.toString();
+    }
+
+    /**
+     * Histogram of non-negative values with one bucket per power of two.
+     * Recording a value costs two adder increments and a max update, without any locks or allocations.
+     */
+    public static class Histogram {
+        private static final int BUCKETS = Long.SIZE;
+
+        private final String name;
+        private final String unit;
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        public Histogram(String name, String unit) {
+            this.name = name;
+            this.unit = unit;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                buckets[bucket] = new LongAdder();
+            }
+        }
+
+        /**
+         * @param value value to record, negative values are counted as 0
+         */
+        public void record(long value) {
+            long positiveValue = Math.max(0, value);
+            // bucket b holds the values below 2^b, bucket 0 only the value 0
+            buckets[BUCKETS - Long.numberOfLeadingZeros(positiveValue)].increment();
+            sum.add(positiveValue);
+            max.accumulate(positiveValue);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        public double getMean() {
+            long count = getCount();
+            return count == 0 ? 0 : (double) sum.sum() / count;
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * Returns an upper bound of the given percentile, precise to a factor of two.
+         *
+         * @param percentile percentile between 0 and 100
+         * @return the smallest power of two (minus one) which is not below the percentile, or 0 if nothing was recorded
+         */
+        public long getPercentile(double percentile) {
+            long count = getCount();
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += buckets[bucket].sum();
+                if (seen >= rank && seen > 0) {
+                    return Math.min(getMax(), bucket == 0 ? 0 : (1L << bucket) - 1);
+                }
+            }
+            return 0;
+        }
+
+        public void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            sum.reset();
+            max.reset();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: count=%d mean=%.1f p50<=%d p99<=%d max=%d %s", name, getCount(), getMean(),
+                getPercentile(50), getPercentile(99), getMax(), unit);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+
+import java.util.Arrays;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Drives a car along a route with the minimum number of turns to the finish line.
+ *
+ * <p>The route is found with a breadth first search over car states (position, velocity and
+ * lap state), using the nine {@link Direction} accelerations as edges.
+ * Moves are checked with the same rules as {@link Game#doCarTurn(Direction)}. Other cars are treated as
+ * obstacles at the position they have while the route is planned.
+ * States are packed into a single long, so neither the queue nor the visited set box any values.</p>
+ *
+ * <p>The route is planned on the first move and planned again whenever the car is not in the state
+ * the route expects, or the next move of the route would hit another car.
+ * If no route exists, the car doesn't move.</p>
+ */
+public class PATH_FINDER_STRATEGY implements MoveStrategy {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int MAX_REVERSE_CROSSINGS = 3;
+    private static final int VELOCITY_OFFSET = 1 << 11;
+    private static final int INITIAL_QUEUE_SIZE = 1 << 12;
+
+    // results of a single move, see simulateMove
+    private static final int MOVE_CRASHED = 0;
+    private static final int MOVE_DONE = 1;
+    private static final int MOVE_WON = 2;
+
+    private final Track track;
+    private final int carIndex;
+
+    private Direction[] route = new Direction[0];
+    private long[] routeStates = new long[0];
+    private int routeIndex;
+
+    // search state
+    private long[] queue = new long[INITIAL_QUEUE_SIZE];
+    private int[] parents = new int[INITIAL_QUEUE_SIZE];
+    private byte[] moves = new byte[INITIAL_QUEUE_SIZE];
+    private final LongHashSet visited = new LongHashSet(INITIAL_QUEUE_SIZE);
+    private final PathVisitor moveStepVisitor = this::visitMoveStep;
+    private boolean firstMoveStep;
+    private Config.SpaceType moveSpaceType;
+    private int moveVelocityX;
+    private int moveVelocityY;
+    private int moveLapState;
+    private int moveResult;
+
+    /**
+     * @param track    track the car drives on
+     * @param carIndex zero-based index of the car controlled by this strategy
+     */
+    public PATH_FINDER_STRATEGY(Track track, int carIndex) {
+        this.track = track;
+        this.carIndex = carIndex;
+    }
+
+    @Override
+    public Direction nextMove() {
+        Car car = track.getCar(carIndex);
+        long state = encode(car.getPosition().getX(), car.getPosition().getY(),
+            car.getSpeed().getX(), car.getSpeed().getY(), car.getLapState());
+        if (routeIndex >= route.length || routeStates[routeIndex] != state || isNextMoveBlocked()) {
+            planRoute(state);
+        }
+        if (routeIndex >= route.length) {
+            return Direction.NONE;
+        }
+        return route[routeIndex++];
+    }
+
+    private boolean isNextMoveBlocked() {
+        long state = routeStates[routeIndex];
+        Direction move = route[routeIndex];
+        return simulateMove(decodeX(state), decodeY(state), decodeVelocityX(state) + move.vector.getX(),
+            decodeVelocityY(state) + move.vector.getY(), decodeLapState(state)) == MOVE_CRASHED;
+    }
+
+    /**
+     * @return number of moves left on the currently planned route
+     */
+    public int getRemainingMoves() {
+        return route.length - routeIndex;
+    }
+
+    /**
+     * Searches the shortest route from the given state to the finish line and stores it as the current route.
+     * If there is no route, the current route is empty afterwards.
+     *
+     * @param start packed start state
+     */
+    private void planRoute(long start) {
+        route = new Direction[0];
+        routeStates = new long[0];
+        routeIndex = 0;
+        visited.clear();
+        visited.add(start);
+        queue[0] = start;
+        parents[0] = -1;
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            long state = queue[head];
+            int x = decodeX(state);
+            int y = decodeY(state);
+            int velocityX = decodeVelocityX(state);
+            int velocityY = decodeVelocityY(state);
+            int lapState = decodeLapState(state);
+            for (Direction direction : DIRECTIONS) {
+                int result = simulateMove(x, y, velocityX + direction.vector.getX(),
+                    velocityY + direction.vector.getY(), lapState);
+                if (result == MOVE_WON) {
+                    storeRoute(head, direction);
+                    return;
+                }
+                if (result == MOVE_CRASHED) {
+                    continue;
+                }
+                long next = encode(x + moveVelocityX, y + moveVelocityY, moveVelocityX, moveVelocityY,
+                    moveLapState);
+                if (Game.getReverseCrossings(moveLapState) > MAX_REVERSE_CROSSINGS || Math.abs(moveVelocityX) >= VELOCITY_OFFSET
+                    || Math.abs(moveVelocityY) >= VELOCITY_OFFSET || !visited.add(next)) {
+                    continue;
+                }
+                if (tail == queue.length) {
+                    growQueue();
+                }
+                queue[tail] = next;
+                parents[tail] = head;
+                moves[tail] = (byte) direction.ordinal();
+                tail++;
+            }
+        }
+    }
+
+    private void storeRoute(int lastState, Direction lastMove) {
+        int length = 1;
+        for (int index = lastState; parents[index] >= 0; index = parents[index]) {
+            length++;
+        }
+        route = new Direction[length];
+        routeStates = new long[length];
+        route[length - 1] = lastMove;
+        routeStates[length - 1] = queue[lastState];
+        int position = length - 2;
+        for (int index = lastState; parents[index] >= 0; index = parents[index]) {
+            route[position] = DIRECTIONS[moves[index]];
+            routeStates[position] = queue[parents[index]];
+            position--;
+        }
+    }
+
+    private void growQueue() {
+        queue = Arrays.copyOf(queue, queue.length * 2);
+        parents = Arrays.copyOf(parents, parents.length * 2);
+        moves = Arrays.copyOf(moves, moves.length * 2);
+    }
+
+    /**
+     * Moves a car from the given position with the given (already accelerated) velocity,
+     * following the rules of {@link Game#doCarTurn(Direction)} with the other cars at their current position.
+     * The resulting velocity and lap state are left in the move fields.
+     *
+     * @return MOVE_CRASHED, MOVE_DONE or MOVE_WON
+     */
+    private int simulateMove(int x, int y, int velocityX, int velocityY, int lapState) {
+        moveVelocityX = velocityX;
+        moveVelocityY = velocityY;
+        moveLapState = lapState;
+        moveResult = MOVE_DONE;
+        int segment = track.getSegment(x, y, velocityX, velocityY);
+        if ((segment & SegmentTable.FINISH_LINE_FLAG) == 0 && !track.isOtherCarInArea(carIndex,
+            Math.min(x, x + velocityX), Math.min(y, y + velocityY),
+            Math.max(x, x + velocityX), Math.max(y, y + velocityY))) {
+            // only walls on the way, the lap state can't change
+            return segment == Track.NO_WALL_HIT ? MOVE_DONE : MOVE_CRASHED;
+        }
+        firstMoveStep = true;
+        Game.traversePath(x, y, x + velocityX, y + velocityY, moveStepVisitor);
+        return moveResult;
+    }
+
+    private boolean visitMoveStep(int x, int y) {
+        Config.SpaceType spaceType = track.getSpaceType(x, y);
+        if (firstMoveStep) {
+            firstMoveStep = false;
+            moveSpaceType = spaceType;
+            return true;
+        }
+        int carHere = track.getCarIndexAt(x, y);
+        if (spaceType == Config.SpaceType.WALL || (carHere != Track.NO_CAR && carHere != carIndex)) {
+            moveResult = MOVE_CRASHED;
+            return false;
+        }
+        int lapState = Game.updateLapState(moveSpaceType, spaceType, moveVelocityX, moveVelocityY, moveLapState);
+        if (lapState == Game.LAP_WON) {
+            moveResult = MOVE_WON;
+            return false;
+        }
+        moveLapState = lapState;
+        moveSpaceType = spaceType;
+        return true;
+    }
+
+    // state layout: x (16 bit) | y (16 bit) | velocity x (12 bit) | velocity y (12 bit) | lap state (8 bit)
+    private static long encode(int x, int y, int velocityX, int velocityY, int lapState) {
+        return ((long) (x & 0xFFFF) << 48) | ((long) (y & 0xFFFF) << 32)
+            | ((long) ((velocityX + VELOCITY_OFFSET) & 0xFFF) << 20) | ((long) ((velocityY + VELOCITY_OFFSET) & 0xFFF) << 8)
+            | (lapState & 0xFF);
+    }
+
+    private static int decodeX(long state) {
+        return (int) (state >>> 48);
+    }
+
+    private static int decodeY(long state) {
+        return (int) (state >>> 32) & 0xFFFF;
+    }
+
+    private static int decodeVelocityX(long state) {
+        return ((int) (state >>> 20) & 0xFFF) - VELOCITY_OFFSET;
+    }
+
+    private static int decodeVelocityY(long state) {
+        return ((int) (state >>> 8) & 0xFFF) - VELOCITY_OFFSET;
+    }
+
+    private static int decodeLapState(long state) {
+        return (int) state & 0xFF;
+    }
+}
@@ -0,0 +1,18 @@
+package ch.zhaw.pm2.racetrack;
+
+/**
+ * Callback for {@link Game#traversePath(int, int, int, int, PathVisitor)}.
+ * Receives every grid position on the path as primitive coordinates, so walking a path does not allocate.
+ */
+@FunctionalInterface
+public interface PathVisitor {
+
+    /**
+     * Visits the next grid position on the path.
+     *
+     * @param x horizontal component of the position
+     * @param y vertical component of the position
+     * @return true to continue with the next position, false to stop the traversal here
+     */
+    boolean visit(int x, int y);
+}
@@ -4,26 +4,43 @@ package ch.zhaw.pm2.racetrack;
  * Holds a position (vector to x,y-position of the car on the track grid)
  * or a velocity vector (x,y-components of the velocity vector of a car).
  *
+ * <p>PositionVectors are immutable values. Small vectors (all velocities and accelerations a car
+ * usually has) are cached, use {@link #of(int, int)} to get them without allocating.
+ * For search code the static pack methods encode a vector into a single long or int,
+ * so vectors can be used as primitive keys.</p>
+ *
  * Created by mach 21.01.2020
  */
-public final class PositionVector implements Cloneable {
-    private int x; // horizontal component (position / velocity)
-    private int y; // vertical component (position / velocity)
+public final class PositionVector {
+    private static final int CACHE_LIMIT = 32;
+    private static final int CACHE_SIZE = 2 * CACHE_LIMIT + 1;
+    private static final PositionVector[] CACHE = new PositionVector[CACHE_SIZE * CACHE_SIZE];
+
+    static {
+        for (int y = -CACHE_LIMIT; y <= CACHE_LIMIT; y++) {
+            for (int x = -CACHE_LIMIT; x <= CACHE_LIMIT; x++) {
+                CACHE[(y + CACHE_LIMIT) * CACHE_SIZE + x + CACHE_LIMIT] = new PositionVector(x, y);
+            }
+        }
+    }
+
+    private final int x; // horizontal component (position / velocity)
+    private final int y; // vertical component (position / velocity)
 
     /**
      * Enum representing a direction on the track grid.
      * Also representing the possible acceleration values.
      */
     public enum Direction {
-        DOWN_LEFT(new PositionVector(-1, 1)),
-        DOWN(new PositionVector(0, 1)),
-        DOWN_RIGHT(new PositionVector(1, 1)),
-        LEFT(new PositionVector(-1, 0)),
-        NONE(new PositionVector(0, 0)),
-        RIGHT(new PositionVector(1, 0)),
-        UP_LEFT(new PositionVector(-1, -1)),
-        UP(new PositionVector(0, -1)),
-        UP_RIGHT(new PositionVector(1, -1));
+        DOWN_LEFT(PositionVector.of(-1, 1)),
+        DOWN(PositionVector.of(0, 1)),
+        DOWN_RIGHT(PositionVector.of(1, 1)),
+        LEFT(PositionVector.of(-1, 0)),
+        NONE(PositionVector.of(0, 0)),
+        RIGHT(PositionVector.of(1, 0)),
+        UP_LEFT(PositionVector.of(-1, -1)),
+        UP(PositionVector.of(0, -1)),
+        UP_RIGHT(PositionVector.of(1, -1));
 
         public final PositionVector vector;
         Direction(final PositionVector v) {
@@ -31,6 +48,73 @@ public final class PositionVector implements Cloneable {
         }
     }
 
+    /**
+     * Returns a PositionVector with the given components. Small vectors (both components within
+     * -32..32, e.g. velocities and the {@link Direction} vectors) are taken from a cache.
+     * @param x horizontal component
+     * @param y vertical component
+     * @return a PositionVector holding x and y
+     */
+    public static PositionVector of(final int x, final int y) {
+        if (x >= -CACHE_LIMIT && x <= CACHE_LIMIT && y >= -CACHE_LIMIT && y <= CACHE_LIMIT) {
+            return CACHE[(y + CACHE_LIMIT) * CACHE_SIZE + x + CACHE_LIMIT];
+        }
+        return new PositionVector(x, y);
+    }
+
+    /**
+     * Encodes the components of a vector into a single long (x in the upper, y in the lower 32 bits).
+     * @param x horizontal component
+     * @param y vertical component
+     * @return the packed vector
+     */
+    public static long pack(final int x, final int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param packed vector encoded with {@link #pack(int, int)}
+     * @return the horizontal component
+     */
+    public static int packedX(final long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * @param packed vector encoded with {@link #pack(int, int)}
+     * @return the vertical component
+     */
+    public static int packedY(final long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Encodes the components of a vector into a single int (x in the upper, y in the lower 16 bits).
+     * Both components must be within the range of a short (-32768..32767).
+     * @param x horizontal component
+     * @param y vertical component
+     * @return the packed vector
+     */
+    public static int packCompact(final int x, final int y) {
+        return (x << 16) | (y & 0xFFFF);
+    }
+
+    /**
+     * @param packed vector encoded with {@link #packCompact(int, int)}
+     * @return the horizontal component
+     */
+    public static int compactX(final int packed) {
+        return packed >> 16;
+    }
+
+    /**
+     * @param packed vector encoded with {@link #packCompact(int, int)}
+     * @return the vertical component
+     */
+    public static int compactY(final int packed) {
+        return (short) packed;
+    }
+
     /**
      * Adds two PositionVectors (e.g. car position and velocity vector or two velocity vectors).
      * @param vectorA A position or velocity vector
@@ -40,7 +124,7 @@ public final class PositionVector implements Cloneable {
      * correct but meaningless.
      */
     public static PositionVector add(final PositionVector vectorA, final PositionVector vectorB) {
-        return new PositionVector(vectorA.getX() + vectorB.getX(), vectorA.getY() + vectorB.getY());
+        return of(vectorA.getX() + vectorB.getX(), vectorA.getY() + vectorB.getY());
     }
 
     /**
@@ -52,7 +136,7 @@ public final class PositionVector implements Cloneable {
      * correct but meaningless.
      */
     public static PositionVector subtract(final PositionVector vectorA, final PositionVector vectorB) {
-        return new PositionVector(vectorA.getX() - vectorB.getX(), vectorA.getY() - vectorB.getY());
+        return of(vectorA.getX() - vectorB.getX(), vectorA.getY() - vectorB.getY());
     }
 
     /**
@@ -87,26 +171,30 @@ public final class PositionVector implements Cloneable {
         return x;
     }
 
-    public void setX(final int x) {
-        this.x = x;
-    }
-
     public int getY() {
         return y;
     }
 
-    public void setY(final int y) {
-        this.y = y;
+    /**
+     * @return this vector encoded with {@link #pack(int, int)}
+     */
+    public long pack() {
+        return pack(x, y);
     }
 
-
     @Override
     public boolean equals(final Object other) {
-        if (!(other instanceof PositionVector)) throw new ClassCastException();
+        if (this == other) return true;
+        if (!(other instanceof PositionVector)) return false;
         final PositionVector otherPositionVector = (PositionVector) other;
         return y == otherPositionVector.getY() && x == otherPositionVector.getX();
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * x + y;
+    }
+
     @Override
     public String toString() {
         return  "(X:" + x + ", Y:" + y + ")";
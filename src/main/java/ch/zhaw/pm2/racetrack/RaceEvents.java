@@ -0,0 +1,104 @@
+package ch.zhaw.pm2.racetrack;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events of the game engine. They are recorded when a flight recording is running,
+ * e.g. with {@code -XX:StartFlightRecording=filename=race.jfr}, and cost next to nothing otherwise.
+ *
+ * <p>Only coarse operations get an event. Path walks and collision checks take a few nanoseconds and run
+ * millions of times in a search, so they are only counted in {@link Metrics}.</p>
+ *
+ * <p>Events of every turn are started with {@link #beginTurn()} and {@link #beginStrategyMove()}, which don't
+ * allocate an event while no recording enables its type.</p>
+ */
+public class RaceEvents {
+    private static final EventType TURN_TYPE = EventType.getEventType(TurnEvent.class);
+    private static final EventType STRATEGY_MOVE_TYPE = EventType.getEventType(StrategyMoveEvent.class);
+
+    private RaceEvents() {
+    }
+
+    /**
+     * @return a started turn event, or null if no recording enables turn events
+     */
+    static TurnEvent beginTurn() {
+        if (!TURN_TYPE.isEnabled()) {
+            return null;
+        }
+        TurnEvent event = new TurnEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @return a started strategy move event, or null if no recording enables strategy move events
+     */
+    static StrategyMoveEvent beginStrategyMove() {
+        if (!STRATEGY_MOVE_TYPE.isEnabled()) {
+            return null;
+        }
+        StrategyMoveEvent event = new StrategyMoveEvent();
+        event.begin();
+        return event;
+    }
+
+    @Name("ch.zhaw.pm2.racetrack.Turn")
+    @Label("Car Turn")
+    @Category("Racetrack")
+    @Description("A turn of a car, see Game.doCarTurn")
+    static class TurnEvent extends Event {
+        @Label("Car Index")
+        int carIndex;
+
+        @Label("Acceleration")
+        String acceleration;
+
+        @Label("Crashed")
+        boolean crashed;
+
+        @Label("Won")
+        boolean won;
+    }
+
+    @Name("ch.zhaw.pm2.racetrack.StrategyMove")
+    @Label("Strategy Move")
+    @Category("Racetrack")
+    @Description("A call to MoveStrategy.nextMove")
+    static class StrategyMoveEvent extends Event {
+        @Label("Strategy")
+        String strategy;
+
+        @Label("Car Index")
+        int carIndex;
+
+        @Label("Move")
+        String move;
+
+        @Label("Timed Out")
+        boolean timedOut;
+    }
+
+    @Name("ch.zhaw.pm2.racetrack.TrackLoad")
+    @Label("Track Load")
+    @Category("Racetrack")
+    @Description("Parsing of a track file by the TrackBuilder")
+    static class TrackLoadEvent extends Event {
+        @Label("Track File")
+        String file;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Cars")
+        int cars;
+    }
+}
@@ -0,0 +1,141 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Records the turns of a game in an append-only binary journal, which can be replayed with {@link ReplayReader}.
+ * Attach the journal to a game with {@link Game#setJournal(ReplayJournal)}.
+ *
+ * <p>Layout of the journal file (big endian):</p>
+ * <pre>
+ *   header:   magic "RTJ1", keyframe interval N (int), snapshot length L (int),
+ *             length of the track path (short), track path (UTF-8)
+ *   blocks:   keyframe marker (byte 0xFF), game snapshot ({@link Game#snapshot()}, L longs),
+ *             followed by up to N turns of one byte each: car index &lt;&lt; 4 | acceleration ordinal
+ * </pre>
+ * <p>Every block has the same size, so the keyframe before any turn is found without reading the turns
+ * in between. Turns are written through a buffer, which is written to the file when it is full,
+ * on {@link #flush()} and on {@link #close()}.</p>
+ */
+public class ReplayJournal implements Closeable {
+    static final byte[] MAGIC = {'R', 'T', 'J', '1'};
+    static final byte KEYFRAME_MARKER = (byte) 0xFF;
+    static final int CAR_INDEX_SHIFT = 4;
+    static final int DIRECTION_MASK = 0x0F;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final int keyframeInterval;
+    private final long[] snapshot;
+    private long turnCount;
+
+    /**
+     * Creates a new journal file, replacing an existing one, and records the current state of the game
+     * as the first keyframe.
+     *
+     * @param journalFile      file to write the journal to
+     * @param trackFile        track file the game is played on, needed to replay the game
+     * @param game             game to record
+     * @param keyframeInterval number of turns between two keyframes
+     * @throws IOException if the journal file could not be written
+     */
+    public ReplayJournal(File journalFile, File trackFile, Game game, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be at least 1");
+        }
+        this.keyframeInterval = keyframeInterval;
+        this.snapshot = new long[game.getSnapshotLength()];
+        byte[] trackPath = trackFile.getPath().getBytes(StandardCharsets.UTF_8);
+        channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.put(MAGIC).putInt(keyframeInterval).putInt(snapshot.length)
+            .putShort((short) trackPath.length).put(trackPath);
+        writeKeyframe(game);
+    }
+
+    /**
+     * Appends a turn to the journal. Called by {@link Game#doCarTurn(Direction)} before the turn is played,
+     * so a keyframe written here holds the state before the turn.
+     *
+     * @param game         game the turn is played in
+     * @param carIndex     zero-based index of the car moving in this turn
+     * @param acceleration acceleration of the car
+     * @throws UncheckedIOException if the journal file could not be written
+     */
+    void recordTurn(Game game, int carIndex, Direction acceleration) {
+        try {
+            if (turnCount > 0 && turnCount % keyframeInterval == 0) {
+                writeKeyframe(game);
+            }
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+            buffer.put((byte) (carIndex << CAR_INDEX_SHIFT | acceleration.ordinal()));
+            turnCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Replay journal could not be written", e);
+        }
+    }
+
+    private void writeKeyframe(Game game) throws IOException {
+        game.snapshot(snapshot);
+        if (buffer.remaining() < 1 + snapshot.length * Long.BYTES) {
+            writeBuffer();
+        }
+        buffer.put(KEYFRAME_MARKER);
+        for (long value : snapshot) {
+            buffer.putLong(value);
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @return number of turns recorded
+     */
+    public long getTurnCount() {
+        return turnCount;
+    }
+
+    /**
+     * Writes all recorded turns to the journal file.
+     *
+     * @throws IOException if the journal file could not be written
+     */
+    public void flush() throws IOException {
+        writeBuffer();
+    }
+
+    /**
+     * Writes all recorded turns and closes the journal file.
+     *
+     * @throws IOException if the journal file could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            try {
+                writeBuffer();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
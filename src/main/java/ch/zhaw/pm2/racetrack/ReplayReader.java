@@ -0,0 +1,163 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Replays a game recorded by a {@link ReplayJournal}.
+ *
+ * <p>{@link #seek(Game, long)} sets a game to the state after any number of turns: it restores the keyframe
+ * before the turn and plays only the turns between the keyframe and the turn, so the cost of a seek is bounded
+ * by the keyframe interval and doesn't depend on the length of the game.
+ * An incomplete block at the end of the journal (e.g. from a game which was not closed) is ignored.</p>
+ */
+public class ReplayReader implements Closeable {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final File journalFile;
+    private final FileChannel channel;
+    private final File trackFile;
+    private final int keyframeInterval;
+    private final long[] snapshot;
+    private final long headerSize;
+    private final long keyframeSize;
+    private final long blockSize;
+    private final long turnCount;
+    private final ByteBuffer keyframeBuffer;
+    private final ByteBuffer turnBuffer;
+
+    /**
+     * Opens a journal file and reads its header.
+     *
+     * @param journalFile journal written by a {@link ReplayJournal}
+     * @throws IOException if the file could not be read or is not a journal
+     */
+    public ReplayReader(File journalFile) throws IOException {
+        this.journalFile = journalFile;
+        channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(ReplayJournal.MAGIC.length + 2 * Integer.BYTES + Short.BYTES);
+            readFully(header, 0);
+            byte[] magic = new byte[ReplayJournal.MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, ReplayJournal.MAGIC)) {
+                throw new IOException(journalFile + " is not a replay journal");
+            }
+            keyframeInterval = header.getInt();
+            snapshot = new long[header.getInt()];
+            ByteBuffer trackPath = ByteBuffer.allocate(header.getShort() & 0xFFFF);
+            readFully(trackPath, header.capacity());
+            trackFile = new File(new String(trackPath.array(), StandardCharsets.UTF_8));
+            headerSize = header.capacity() + trackPath.capacity();
+
+            keyframeSize = 1 + (long) snapshot.length * Long.BYTES;
+            blockSize = keyframeSize + keyframeInterval;
+            long dataSize = channel.size() - headerSize;
+            long lastBlockTurns = Math.max(0, dataSize % blockSize - keyframeSize);
+            turnCount = dataSize / blockSize * keyframeInterval + lastBlockTurns;
+            keyframeBuffer = ByteBuffer.allocate((int) keyframeSize);
+            turnBuffer = ByteBuffer.allocate(keyframeInterval);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return track file the recorded game was played on
+     */
+    public File getTrackFile() {
+        return trackFile;
+    }
+
+    /**
+     * @return number of recorded turns
+     */
+    public long getTurnCount() {
+        return turnCount;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Creates a new game on the recorded track and sets it to the state after the given number of turns.
+     *
+     * @param turn number of turns to play, between 0 and {@link #getTurnCount()}
+     * @return game after the given turn
+     * @throws IOException                 if the journal or the track file could not be read
+     * @throws InvalidTrackFormatException if the track file contains invalid data
+     */
+    public Game seek(long turn) throws IOException, InvalidTrackFormatException {
+        Game game = new Game(new Track(trackFile));
+        seek(game, turn);
+        return game;
+    }
+
+    /**
+     * Sets a game on the recorded track to the state after the given number of turns.
+     * The game may be in any state before, so the same game can be used to seek back and forth.
+     *
+     * @param game game on the recorded track
+     * @param turn number of turns to play, between 0 and {@link #getTurnCount()}
+     * @throws IOException if the journal could not be read
+     */
+    public void seek(Game game, long turn) throws IOException {
+        if (turn < 0 || turn > turnCount) {
+            throw new IllegalArgumentException("Turn " + turn + " is not between 0 and " + turnCount);
+        }
+        if (game.getSnapshotLength() != snapshot.length) {
+            throw new IllegalArgumentException("Game doesn't match the recorded game");
+        }
+        // the keyframe of the block a turn is in holds the state before the turn, the last turn is in the last block
+        long block = turn == turnCount && turn > 0 ? (turn - 1) / keyframeInterval : turn / keyframeInterval;
+        long blockPosition = headerSize + block * blockSize;
+        keyframeBuffer.clear();
+        readFully(keyframeBuffer, blockPosition);
+        if (keyframeBuffer.get() != ReplayJournal.KEYFRAME_MARKER) {
+            throw new IOException("Missing keyframe in " + journalFile + " at " + blockPosition);
+        }
+        keyframeBuffer.asLongBuffer().get(snapshot);
+        game.restore(snapshot);
+
+        int turns = (int) (turn - block * keyframeInterval);
+        turnBuffer.clear().limit(turns);
+        readFully(turnBuffer, blockPosition + keyframeSize);
+        for (int index = 0; index < turns; index++) {
+            playTurn(game, turnBuffer.get(index));
+        }
+    }
+
+    private static void playTurn(Game game, byte record) {
+        int carIndex = (record & 0xFF) >>> ReplayJournal.CAR_INDEX_SHIFT;
+        // the recorded car is not crashed, so it is reached by switching cars like the game loop did
+        for (int step = 0; step < Config.MAX_CARS && game.getCurrentCarIndex() != carIndex; step++) {
+            game.switchToNextActiveCar();
+        }
+        game.doCarTurn(DIRECTIONS[record & ReplayJournal.DIRECTION_MASK]);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of " + journalFile);
+            }
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
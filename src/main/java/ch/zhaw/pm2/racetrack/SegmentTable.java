@@ -0,0 +1,134 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Memoized wall tests of straight path segments, see {@link Track#getWallHitStep(int, int, int, int)}.
+ *
+ * <p>The table is direct-mapped: every segment (start position and velocity) has exactly one slot, chosen by a hash
+ * of the segment. A slot holds the segment key and its result in a single long, so it can be read and written
+ * without locks by several threads; a segment whose slot is taken by another segment is computed again and
+ * replaces it. The memory of the table is fixed when it is created. Segments which don't fit into a key
+ * (very large tracks or velocities) are always computed.</p>
+ *
+ * <p>Segments are computed on the {@link SpaceBitset}s of the walls and the finish line of the track.</p>
+ */
+class SegmentTable {
+    static final int NO_WALL_HIT = 0;
+    static final int FINISH_LINE_FLAG = 1 << 30;
+    static final int STEP_MASK = FINISH_LINE_FLAG - 1;
+
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final int MAX_CAPACITY = 1 << 20;
+    private static final int SLOTS_PER_SPACE = 8;
+
+    // entry layout: valid (1 bit) | x (12 bit) | y (12 bit) | velocity x (9 bit) | velocity y (9 bit) | result (20 bit)
+    // the result of a cached segment is its wall hit step (at most 255) with the finish line flag in the top bit
+    private static final int RESULT_BITS = 20;
+    private static final int RESULT_MASK = (1 << RESULT_BITS) - 1;
+    private static final int ENTRY_FINISH_LINE_FLAG = 1 << (RESULT_BITS - 1);
+    private static final int POSITION_LIMIT = 1 << 12;
+    private static final int VELOCITY_OFFSET = 1 << 8;
+    private static final long VALID = 1L << 62;
+
+    private final SpaceBitset walls;
+    private final SpaceBitset finishLine;
+    private final AtomicLongArray entries;
+    private final int shift;
+
+    /**
+     * @param walls      wall spaces of the track, including the positions outside of the grid
+     * @param finishLine finish line spaces of the track
+     * @param spaces     number of spaces of the track
+     */
+    SegmentTable(SpaceBitset walls, SpaceBitset finishLine, int spaces) {
+        this.walls = walls;
+        this.finishLine = finishLine;
+        int capacity = MIN_CAPACITY;
+        while (capacity < MAX_CAPACITY && capacity < (long) spaces * SLOTS_PER_SPACE) {
+            capacity <<= 1;
+        }
+        entries = new AtomicLongArray(capacity);
+        shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * @return step of the first WALL space after the start position on the segment (1 for the first space after
+     * the start) or {@link #NO_WALL_HIT}, combined with {@link #FINISH_LINE_FLAG} if a finish line space comes
+     * before the wall (or the end of the segment), including the start position
+     */
+    int lookup(int x, int y, int velocityX, int velocityY) {
+        if (x < 0 || y < 0 || x >= POSITION_LIMIT || y >= POSITION_LIMIT
+            || Math.abs(velocityX) >= VELOCITY_OFFSET || Math.abs(velocityY) >= VELOCITY_OFFSET) {
+            return compute(x, y, velocityX, velocityY);
+        }
+        long key = VALID | (long) x << 50 | (long) y << 38
+            | (long) (velocityX + VELOCITY_OFFSET) << 29 | (long) (velocityY + VELOCITY_OFFSET) << RESULT_BITS;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        long entry = entries.getOpaque(slot);
+        if ((entry & -(1L << RESULT_BITS)) == key) {
+            int cached = (int) entry & RESULT_MASK;
+            return (cached & ENTRY_FINISH_LINE_FLAG) == 0 ? cached : cached ^ ENTRY_FINISH_LINE_FLAG | FINISH_LINE_FLAG;
+        }
+        int result = compute(x, y, velocityX, velocityY);
+        int cached = (result & FINISH_LINE_FLAG) == 0 ? result : result & STEP_MASK | ENTRY_FINISH_LINE_FLAG;
+        entries.setOpaque(slot, key | cached);
+        return result;
+    }
+
+    /**
+     * Tests the segment run by run: the path of {@link Game#traversePath(int, int, int, int, PathVisitor)} moves
+     * along its fast axis and takes a diagonal step to the next run at the steps given by its error term, so
+     * every run is a straight piece of a row or a column, which is tested on the bitsets.
+     */
+    int compute(int startX, int startY, int velocityX, int velocityY) {
+        int distanceX = Math.abs(velocityX);
+        int distanceY = Math.abs(velocityY);
+        boolean horizontal = distanceX > distanceY;
+        int distanceFastAxis = Math.max(distanceX, distanceY);
+        int distanceSlowAxis = Math.min(distanceX, distanceY);
+        int directionFast = Integer.signum(horizontal ? velocityX : velocityY);
+        int directionSlow = Integer.signum(horizontal ? velocityY : velocityX);
+        int fastStart = horizontal ? startX : startY;
+        int slowStart = horizontal ? startY : startX;
+        int result = NO_WALL_HIT;
+        int runStart = 0;
+        for (int run = 0; run <= distanceSlowAxis; run++) {
+            int runEnd = run == distanceSlowAxis ? distanceFastAxis
+                : firstStepOfRun(run + 1, distanceFastAxis, distanceSlowAxis) - 1;
+            int slow = slowStart + run * directionSlow;
+            int lastStep = runEnd;
+            int wallFrom = Math.max(runStart, 1);
+            if (wallFrom <= runEnd) {
+                int wall = find(walls, horizontal, slow, fastStart + wallFrom * directionFast,
+                    fastStart + runEnd * directionFast);
+                if (wall != SpaceBitset.NOT_FOUND) {
+                    int wallStep = (wall - fastStart) * directionFast;
+                    result |= wallStep;
+                    lastStep = wallStep - 1;
+                }
+            }
+            if (lastStep >= runStart && find(finishLine, horizontal, slow, fastStart + runStart * directionFast,
+                fastStart + lastStep * directionFast) != SpaceBitset.NOT_FOUND) {
+                result |= FINISH_LINE_FLAG;
+            }
+            if ((result & STEP_MASK) != NO_WALL_HIT) {
+                return result;
+            }
+            runStart = runEnd + 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return first step of the path on the given run, see {@link Game#getPathPosition(int, int, int, int, int)}
+     */
+    private static int firstStepOfRun(int run, int distanceFastAxis, int distanceSlowAxis) {
+        int minimum = run * distanceFastAxis - distanceFastAxis + distanceFastAxis / 2 + 1;
+        return (minimum + distanceSlowAxis - 1) / distanceSlowAxis;
+    }
+
+    private static int find(SpaceBitset bitset, boolean horizontal, int slow, int fastFrom, int fastTo) {
+        return horizontal ? bitset.findInRow(slow, fastFrom, fastTo) : bitset.findInColumn(slow, fastFrom, fastTo);
+    }
+}
@@ -0,0 +1,569 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Hosts many games (sessions) in one JVM, whose cars are driven by client processes on the same machine.
+ *
+ * <p>Clients connect to a socket on the loopback address and talk a line protocol (UTF-8, one command per line):
+ * <ul>
+ *   <li>{@code JOIN <session> <carId>}: takes the slot of a car, answered with {@code JOINED <session> <carId>}
+ *       and the state of the game</li>
+ *   <li>{@code MOVE <direction>}: accelerates the joined car in its turn, the direction is the name of a
+ *       {@link Direction}. The new state is sent to all clients of the session.</li>
+ *   <li>{@code STATE}: asks for the state of the game</li>
+ *   <li>{@code QUIT}: leaves the session and closes the connection, answered with {@code BYE}</li>
+ * </ul>
+ * The state is sent as {@code STATE <session> <turn> <current carId> <winner carId or -> <car>...}, with
+ * {@code <carId>,<x>,<y>,<velocity x>,<velocity y>,<crashed 0 or 1>} for each car. Invalid commands are answered
+ * with {@code ERROR <message>}.</p>
+ *
+ * <p>All connections are served by a single thread with a {@link Selector}, which also plays the turns: a turn
+ * takes microseconds, so a client gets the new state right after its move. A session is only a game and its
+ * track (a copy sharing the grid, see {@link TrackCache}), so thousands of idle sessions cost some memory but no
+ * threads and no time.</p>
+ *
+ * <p>The race of a session starts with its first move. From then on, a car without a client (which left or never
+ * joined) doesn't hold up the others: the host plays {@link Direction#NONE} for it in its turns, as long as a car
+ * on the track still has a client. A client may join such a car and take over. A session is removed when its last
+ * client leaves, once the race has started.</p>
+ */
+public class SessionHost implements Closeable {
+    private static final String NO_WINNER = "-";
+    private static final int MAX_LINE_LENGTH = 256;
+    private static final int MAX_PENDING_OUTPUT = 64 * 1024;
+    private static final Direction DEFAULT_MOVE = Direction.NONE;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final TrackCache trackCache = new TrackCache();
+    private final Map<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSessionId = new AtomicInteger(1);
+    private final StringBuilder line = new StringBuilder();
+    // sessions whose cars lost their clients, their turns are played after the selected keys are handled
+    private final Set<Session> abandonedSessions = new LinkedHashSet<>();
+    private volatile boolean closed;
+    private volatile Thread loopThread;
+
+    /**
+     * Opens the socket of the host on the loopback address. Call {@link #start()} or {@link #run()} to serve it.
+     *
+     * @param port port to listen on, 0 for any free port (see {@link #getPort()})
+     * @throws IOException if the socket can't be opened
+     */
+    public SessionHost(int port) throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * @return port the host listens on
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Creates a new session on the given track, all cars wait for a client to join them.
+     *
+     * @param trackFile track of the game
+     * @return id of the session, used by clients to join it
+     * @throws IOException                 if the track file could not be read
+     * @throws InvalidTrackFormatException if the track file contains invalid data
+     */
+    public int createSession(File trackFile) throws IOException, InvalidTrackFormatException {
+        int sessionId = nextSessionId.getAndIncrement();
+        sessions.put(sessionId, new Session(sessionId, new Game(trackCache.getTrack(trackFile))));
+        return sessionId;
+    }
+
+    /**
+     * @return number of open sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Serves the clients on a new daemon thread.
+     *
+     * @return the thread of the host
+     */
+    public Thread start() {
+        Thread thread = new Thread(this::run, "session-host-" + getPort());
+        thread.setDaemon(true);
+        loopThread = thread;
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Serves the clients on the calling thread until the host is closed.
+     */
+    public void run() {
+        loopThread = Thread.currentThread();
+        try {
+            while (!closed) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    // the key may have been cancelled while handling another key, e.g. by a failed broadcast
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    handle(key);
+                }
+                playAbandonedTurns();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                throw new IllegalStateException("Session host failed", e);
+            }
+        } finally {
+            closeChannels();
+        }
+    }
+
+    /**
+     * Closes the socket and all connections, and waits for the thread of the host to end.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        Thread thread = loopThread;
+        if (thread == null) {
+            closeChannels();
+        } else if (thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void closeChannels() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            // nothing left to do with the channels
+        }
+    }
+
+    /**
+     * Serves a selected key. Any failure of a connection only closes this connection, the host keeps running.
+     */
+    private void handle(SelectionKey key) {
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        try {
+            Connection connection = (Connection) key.attachment();
+            if (key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+            }
+        } catch (IOException | CancelledKeyException e) {
+            disconnect(key);
+        } catch (RuntimeException e) {
+            System.err.println("Closing connection after an error: " + e);
+            disconnect(key);
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel = null;
+        try {
+            channel = server.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                // states are short lines, which must not wait for more data to be sent
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Connection connection = new Connection(channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            }
+        } catch (IOException e) {
+            // only this client is lost
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException closeFailed) {
+                    // nothing left to close
+                }
+            }
+        }
+    }
+
+    private void disconnect(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // the connection is gone anyway
+        }
+        if (connection != null) {
+            connection.leave();
+        }
+    }
+
+    /**
+     * Executes a command of a client.
+     */
+    private void execute(Connection connection, String command) throws IOException {
+        String[] words = command.trim().split("\\s+");
+        switch (words[0].toUpperCase(Locale.ROOT)) {
+            case "JOIN":
+                join(connection, words);
+                break;
+            case "MOVE":
+                move(connection, words);
+                break;
+            case "STATE":
+                if (connection.session == null) {
+                    connection.send("ERROR not joined");
+                } else {
+                    connection.send(connection.session.getState());
+                }
+                break;
+            case "QUIT":
+                connection.send("BYE");
+                connection.flush();
+                disconnect(connection.key);
+                break;
+            default:
+                connection.send("ERROR unknown command " + words[0]);
+        }
+    }
+
+    private void join(Connection connection, String[] words) {
+        if (connection.session != null) {
+            connection.send("ERROR already joined");
+            return;
+        }
+        if (words.length != 3 || words[2].codePointCount(0, words[2].length()) != 1 || !isNumber(words[1])) {
+            connection.send("ERROR usage: JOIN <session> <carId>");
+            return;
+        }
+        Session session = sessions.get(Integer.parseInt(words[1]));
+        if (session == null) {
+            connection.send("ERROR unknown session " + words[1]);
+            return;
+        }
+        int carIndex = session.findCar(words[2].charAt(0));
+        if (carIndex == Track.NO_CAR) {
+            connection.send("ERROR unknown car " + words[2]);
+        } else if (session.drivers[carIndex] != null) {
+            connection.send("ERROR car " + words[2] + " is taken");
+        } else {
+            session.drivers[carIndex] = connection;
+            connection.session = session;
+            connection.carIndex = carIndex;
+            connection.send("JOINED " + session.id + " " + words[2]);
+            connection.send(session.getState());
+        }
+    }
+
+    private void move(Connection connection, String[] words) {
+        Session session = connection.session;
+        Direction direction = words.length == 2 ? parseDirection(words[1]) : null;
+        if (session == null) {
+            connection.send("ERROR not joined");
+        } else if (direction == null) {
+            connection.send("ERROR usage: MOVE <direction>");
+        } else if (session.game.getWinner() != Game.NO_WINNER) {
+            connection.send("ERROR game over");
+        } else if (session.game.getCurrentCarIndex() != connection.carIndex) {
+            connection.send("ERROR not your turn");
+        } else {
+            session.play(direction);
+            session.playDriverlessCars();
+            String state = session.getState();
+            broadcast(session, state, connection);
+            connection.send(state);
+        }
+    }
+
+    /**
+     * Sends the state to all clients of the session except the given one, a client which can't take it
+     * is disconnected.
+     */
+    private void broadcast(Session session, String state, Connection except) {
+        for (Connection driver : session.drivers) {
+            if (driver != null && driver != except) {
+                driver.send(state);
+                try {
+                    driver.flush();
+                } catch (IOException e) {
+                    disconnect(driver.key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays the turns of cars whose clients left, and sends the new state to the remaining clients.
+     */
+    private void playAbandonedTurns() {
+        while (!abandonedSessions.isEmpty()) {
+            Iterator<Session> iterator = abandonedSessions.iterator();
+            Session session = iterator.next();
+            iterator.remove();
+            int turn = session.turn;
+            session.playDriverlessCars();
+            if (session.turn != turn) {
+                broadcast(session, session.getState(), null);
+            }
+        }
+    }
+
+    private static Direction parseDirection(String name) {
+        for (Direction direction : Direction.values()) {
+            if (direction.name().equalsIgnoreCase(name)) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isNumber(String word) {
+        return !word.isEmpty() && word.length() < 10 && word.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * A game with the clients driving its cars. Only used by the thread of the host.
+     */
+    private class Session {
+        private final int id;
+        private final Game game;
+        private final Connection[] drivers;
+        private int turn;
+
+        private Session(int id, Game game) {
+            this.id = id;
+            this.game = game;
+            this.drivers = new Connection[game.getTrack().getCarCount()];
+        }
+
+        private int findCar(char carId) {
+            Track track = game.getTrack();
+            for (int carIndex = 0; carIndex < track.getCarCount(); carIndex++) {
+                if (track.getCarId(carIndex) == carId) {
+                    return carIndex;
+                }
+            }
+            return Track.NO_CAR;
+        }
+
+        private void play(Direction direction) {
+            game.doCarTurn(direction);
+            turn++;
+            if (game.getWinner() == Game.NO_WINNER) {
+                game.switchToNextActiveCar();
+            }
+        }
+
+        /**
+         * Plays the default move for the cars without a client once the race has started, until it is the turn
+         * of a car with a client. Does nothing if no car on the track has a client.
+         */
+        private void playDriverlessCars() {
+            while (turn > 0 && game.getWinner() == Game.NO_WINNER && drivers[game.getCurrentCarIndex()] == null
+                && hasDriverOnTrack()) {
+                play(DEFAULT_MOVE);
+            }
+        }
+
+        private boolean hasDriverOnTrack() {
+            for (int carIndex = 0; carIndex < drivers.length; carIndex++) {
+                if (drivers[carIndex] != null && !game.getTrack().getCar(carIndex).isCrashed()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasDrivers() {
+            for (Connection driver : drivers) {
+                if (driver != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String getState() {
+            Track track = game.getTrack();
+            line.setLength(0);
+            line.append("STATE ").append(id).append(' ').append(turn).append(' ')
+                .append(track.getCarId(game.getCurrentCarIndex())).append(' ')
+                .append(game.getWinner() == Game.NO_WINNER ? NO_WINNER : String.valueOf(track.getCarId(game.getWinner())));
+            for (int carIndex = 0; carIndex < track.getCarCount(); carIndex++) {
+                Car car = track.getCar(carIndex);
+                line.append(' ').append(car.getName())
+                    .append(',').append(car.getPosition().getX()).append(',').append(car.getPosition().getY())
+                    .append(',').append(car.getSpeed().getX()).append(',').append(car.getSpeed().getY())
+                    .append(',').append(car.isCrashed() ? 1 : 0);
+            }
+            return line.toString();
+        }
+
+        private void leave(Connection connection) {
+            drivers[connection.carIndex] = null;
+            if (turn == 0) {
+                // the race didn't start, the session stays open for other clients
+                return;
+            }
+            if (hasDrivers()) {
+                abandonedSessions.add(this);
+            } else {
+                abandonedSessions.remove(this);
+                sessions.remove(id);
+            }
+        }
+    }
+
+    /**
+     * A client connection with its input and output buffers. Only used by the thread of the host.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private final ByteBuffer input = ByteBuffer.allocate(MAX_LINE_LENGTH);
+        private ByteBuffer output = ByteBuffer.allocate(1024);
+        private Session session;
+        private int carIndex = Track.NO_CAR;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void read() throws IOException {
+            if (channel.read(input) < 0) {
+                disconnect(key);
+                return;
+            }
+            input.flip();
+            int lineStart = 0;
+            for (int index = 0; index < input.limit(); index++) {
+                if (input.get(index) == '\n') {
+                    String command = new String(input.array(), lineStart, index - lineStart, StandardCharsets.UTF_8);
+                    lineStart = index + 1;
+                    if (!command.trim().isEmpty()) {
+                        execute(this, command);
+                        if (!key.isValid()) {
+                            return;
+                        }
+                    }
+                }
+            }
+            input.position(lineStart);
+            input.compact();
+            if (!input.hasRemaining()) {
+                send("ERROR line too long");
+                flush();
+                disconnect(key);
+                return;
+            }
+            flush();
+        }
+
+        private void send(String message) {
+            byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+            if (output.remaining() < bytes.length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(output.capacity() * 2, output.position() + bytes.length));
+                output.flip();
+                larger.put(output);
+                output = larger;
+            }
+            output.put(bytes);
+        }
+
+        /**
+         * Writes as much of the pending output as the socket takes, and waits for the socket to be writable
+         * if there is more.
+         */
+        private void flush() throws IOException {
+            output.flip();
+            try {
+                channel.write(output);
+            } finally {
+                output.compact();
+            }
+            if (output.position() > MAX_PENDING_OUTPUT) {
+                // the client doesn't read its messages
+                throw new ClosedChannelException();
+            }
+            if (key.isValid()) {
+                key.interestOps(output.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                    : SelectionKey.OP_READ);
+            }
+        }
+
+        private void leave() {
+            if (session != null) {
+                session.leave(this);
+                session = null;
+            }
+        }
+    }
+
+    /**
+     * Starts a host with sessions on the tracks of the track directory.
+     * Arguments: [port] [sessions per track]
+     */
+    public static void main(String[] args) throws IOException, InvalidTrackFormatException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int sessionsPerTrack = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        File[] trackFiles = new Config().getTrackDirectory().listFiles((directory, name) -> name.endsWith(".txt"));
+        List<String> created = new ArrayList<>();
+        SessionHost host = new SessionHost(port);
+        for (File trackFile : trackFiles == null ? new File[0] : trackFiles) {
+            for (int session = 0; session < sessionsPerTrack; session++) {
+                created.add(host.createSession(trackFile) + " " + trackFile.getName());
+            }
+        }
+        System.out.println("Listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + host.getPort());
+        created.forEach(System.out::println);
+        host.run();
+    }
+}
@@ -0,0 +1,78 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.AsyncMoveStrategy;
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Lets a move strategy choose its moves on its own copy of the game (see {@link Game#copy()}), for the
+ * time budget of the {@link GameEngine}.
+ *
+ * <p>The strategy is created for the copy, so it never reads the game the engine plays. The copy is set to the
+ * state of the game (see {@link Game#restore(long[])}) before every call, and only then, as the engine doesn't ask
+ * for a move while a call is pending. A strategy which implements {@link AsyncMoveStrategy} itself is called
+ * directly, any other strategy runs on a daemon thread of a shared pool, so a blocking strategy (e.g. one waiting
+ * for user input) doesn't block the game loop.</p>
+ */
+class SnapshotMoveStrategy implements AsyncMoveStrategy {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "move-strategy-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Game game;
+    private final Game gameCopy;
+    private final long[] snapshot;
+    private final MoveStrategy strategy;
+    private CompletableFuture<Direction> pendingMove;
+
+    /**
+     * @param game            game played by the engine
+     * @param strategyFactory creates the strategy for a game, it gets the copy of the game
+     */
+    SnapshotMoveStrategy(Game game, Function<Game, MoveStrategy> strategyFactory) {
+        this.game = game;
+        gameCopy = game.copy();
+        snapshot = new long[game.getSnapshotLength()];
+        strategy = strategyFactory.apply(gameCopy);
+    }
+
+    /**
+     * @throws IllegalStateException if the previous call is still pending
+     */
+    @Override
+    public synchronized CompletableFuture<Direction> nextMove(long timeBudgetMillis) {
+        if (pendingMove != null && !pendingMove.isDone()) {
+            throw new IllegalStateException("The previous move of " + getName() + " is still pending");
+        }
+        game.snapshot(snapshot);
+        gameCopy.restore(snapshot);
+        if (strategy instanceof AsyncMoveStrategy) {
+            pendingMove = ((AsyncMoveStrategy) strategy).nextMove(timeBudgetMillis);
+        } else {
+            pendingMove = CompletableFuture.supplyAsync(strategy::nextMove, EXECUTOR);
+        }
+        return pendingMove;
+    }
+
+    @Override
+    public Direction bestMoveSoFar() {
+        return strategy instanceof AsyncMoveStrategy ? ((AsyncMoveStrategy) strategy).bestMoveSoFar() : null;
+    }
+
+    /**
+     * @return simple class name of the strategy, for events and messages
+     */
+    String getName() {
+        return strategy.getClass().getSimpleName();
+    }
+}
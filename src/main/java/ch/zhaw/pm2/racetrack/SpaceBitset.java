@@ -0,0 +1,147 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.util.Set;
+
+/**
+ * The spaces of a grid with one of the given space types, as a bitset per row and a bitset per column.
+ *
+ * <p>A run of spaces in a row or a column is tested with a mask per 64 spaces, so a straight path through
+ * the grid costs a few word operations instead of a lookup per space. Positions outside of the grid are
+ * either all in the set (e.g. for walls, see {@link Track#getSpaceType(int, int)}) or none of them.</p>
+ */
+class SpaceBitset {
+    static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    private final int width;
+    private final int height;
+    private final boolean outside;
+    private final int wordsPerRow;
+    private final int wordsPerColumn;
+    private final long[] rows;
+    private final long[] columns;
+
+    /**
+     * @param grid    row-major {@link Config.SpaceType} ordinals
+     * @param width   width of the grid
+     * @param height  height of the grid
+     * @param types   space types in the set
+     * @param outside true if the positions outside of the grid are in the set
+     */
+    SpaceBitset(byte[] grid, int width, int height, Set<Config.SpaceType> types, boolean outside) {
+        this.width = width;
+        this.height = height;
+        this.outside = outside;
+        wordsPerRow = (width + Long.SIZE - 1) / Long.SIZE;
+        wordsPerColumn = (height + Long.SIZE - 1) / Long.SIZE;
+        rows = new long[wordsPerRow * height];
+        columns = new long[wordsPerColumn * width];
+        Config.SpaceType[] spaceTypes = Config.SpaceType.values();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (types.contains(spaceTypes[grid[y * width + x]])) {
+                    rows[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+                    columns[x * wordsPerColumn + (y >>> 6)] |= 1L << y;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the given position is in the set
+     */
+    boolean contains(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return outside;
+        }
+        return (rows[y * wordsPerRow + (x >>> 6)] & 1L << x) != 0;
+    }
+
+    /**
+     * Returns the first position of the row in the set, going from {@code fromX} to {@code toX}.
+     * The search goes to the left if {@code toX} is smaller than {@code fromX}.
+     *
+     * @param y     row of the run
+     * @param fromX first horizontal position of the run
+     * @param toX   last horizontal position of the run, included
+     * @return horizontal position of the first space in the set, or {@link #NOT_FOUND}
+     */
+    int findInRow(int y, int fromX, int toX) {
+        if (y < 0 || y >= height) {
+            return outside ? fromX : NOT_FOUND;
+        }
+        return find(rows, y * wordsPerRow, width, fromX, toX);
+    }
+
+    /**
+     * Returns the first position of the column in the set, going from {@code fromY} to {@code toY}.
+     * The search goes up if {@code toY} is smaller than {@code fromY}.
+     *
+     * @param x     column of the run
+     * @param fromY first vertical position of the run
+     * @param toY   last vertical position of the run, included
+     * @return vertical position of the first space in the set, or {@link #NOT_FOUND}
+     */
+    int findInColumn(int x, int fromY, int toY) {
+        if (x < 0 || x >= width) {
+            return outside ? fromY : NOT_FOUND;
+        }
+        return find(columns, x * wordsPerColumn, height, fromY, toY);
+    }
+
+    private int find(long[] bits, int base, int length, int from, int to) {
+        if (from <= to) {
+            if (from < 0 && outside) {
+                return from;
+            }
+            int low = Math.max(from, 0);
+            int high = Math.min(to, length - 1);
+            if (low <= high) {
+                int found = nextSetBit(bits, base, low, high);
+                if (found != NOT_FOUND) {
+                    return found;
+                }
+            }
+            return to >= length && outside ? Math.max(from, length) : NOT_FOUND;
+        }
+        if (from >= length && outside) {
+            return from;
+        }
+        int high = Math.min(from, length - 1);
+        int low = Math.max(to, 0);
+        if (low <= high) {
+            int found = previousSetBit(bits, base, high, low);
+            if (found != NOT_FOUND) {
+                return found;
+            }
+        }
+        return to < 0 && outside ? Math.min(from, -1) : NOT_FOUND;
+    }
+
+    private static int nextSetBit(long[] bits, int base, int from, int to) {
+        int word = from >>> 6;
+        int lastWord = to >>> 6;
+        long mask = bits[base + word] & -1L << from;
+        while (word < lastWord) {
+            if (mask != 0) {
+                return word * Long.SIZE + Long.numberOfTrailingZeros(mask);
+            }
+            mask = bits[base + ++word];
+        }
+        mask &= -1L >>> (Long.SIZE - 1 - (to & (Long.SIZE - 1)));
+        return mask != 0 ? word * Long.SIZE + Long.numberOfTrailingZeros(mask) : NOT_FOUND;
+    }
+
+    private static int previousSetBit(long[] bits, int base, int from, int to) {
+        int word = from >>> 6;
+        int lastWord = to >>> 6;
+        long mask = bits[base + word] & -1L >>> (Long.SIZE - 1 - (from & (Long.SIZE - 1)));
+        while (word > lastWord) {
+            if (mask != 0) {
+                return word * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(mask);
+            }
+            mask = bits[base + --word];
+        }
+        mask &= -1L << to;
+        return mask != 0 ? word * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(mask) : NOT_FOUND;
+    }
+}
@@ -7,6 +7,7 @@ import java.util.Objects;
 
 public class Start {
     static IO io = new IO();
+    static TrackCache trackCache = new TrackCache();
     static Track track;
     static final int INDEX_OFFSET = 1;
 
@@ -21,7 +22,7 @@ public class Start {
 
     private static void setUpGame() {
         File files = new File("tracks");
-        String[] tracks = Objects.requireNonNull(files.list());
+        String[] tracks = Objects.requireNonNull(files.list((dir, name) -> name.endsWith(BinaryTrackFormat.SOURCE_EXTENSION)));
 
         io.print("Welcome to Racetrack!\nSelect Track file:\n");
         for (int i = 0; i < tracks.length; ++i) {
@@ -31,7 +32,7 @@ public class Start {
         int trackChosen = io.intInputReader(1, tracks.length, "Choose your map [1-" + tracks.length + "]:") - INDEX_OFFSET;
 
         try {
-            track = new Track(new File("tracks/" + tracks[trackChosen]));
+            track = trackCache.getTrack(new File("tracks/" + tracks[trackChosen]));
         } catch (IOException | InvalidTrackFormatException e) {
             e.printStackTrace();
         }
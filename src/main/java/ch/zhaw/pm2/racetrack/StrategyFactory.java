@@ -0,0 +1,74 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates move strategies by their {@link Config.StrategyType}.
+ */
+public class StrategyFactory {
+    // USER needs a player at the terminal, MOVE_LIST needs a move file matching the track
+    private static final Set<Config.StrategyType> HEADLESS_TYPES =
+        EnumSet.of(Config.StrategyType.DO_NOT_MOVE, Config.StrategyType.PATH_FINDER,
+            Config.StrategyType.MONTE_CARLO);
+    // strategies which read the distance fields of the whole grid (see Track#getLapDistances()), not on tiled tracks
+    private static final Set<Config.StrategyType> DISTANCE_FIELD_TYPES = EnumSet.of(Config.StrategyType.MONTE_CARLO);
+
+    private StrategyFactory() {
+    }
+
+    /**
+     * @param type strategy type
+     * @return true if strategies of this type can play without a player or any other input
+     */
+    public static boolean isHeadless(Config.StrategyType type) {
+        return HEADLESS_TYPES.contains(type);
+    }
+
+    /**
+     * @return all strategy types which can play without a player or any other input, in declaration order
+     */
+    public static List<Config.StrategyType> getHeadlessTypes() {
+        return new ArrayList<>(HEADLESS_TYPES);
+    }
+
+    /**
+     * @param type strategy type
+     * @return true if strategies of this type need the distance fields of the whole track, which tiled tracks
+     * (see {@link Track#openTiled(java.io.File, int)}) don't have
+     */
+    public static boolean needsDistanceFields(Config.StrategyType type) {
+        return DISTANCE_FIELD_TYPES.contains(type);
+    }
+
+    /**
+     * Creates a strategy for a car in the given game.
+     *
+     * @param type     strategy type
+     * @param game     game the car plays in
+     * @param carIndex zero-based index of the car controlled by the strategy
+     * @return new move strategy
+     * @throws IllegalArgumentException if strategies of this type can not be created without a player or input,
+     *                                  or need distance fields and the track is tiled
+     */
+    public static MoveStrategy create(Config.StrategyType type, Game game, int carIndex) {
+        if (game.getTrack().isTiled() && needsDistanceFields(type)) {
+            throw new IllegalArgumentException("Strategy " + type
+                + " needs the distance fields of the whole track and can not play on a tiled track");
+        }
+        switch (type) {
+            case DO_NOT_MOVE:
+                return new DO_NOT_MOVE_STRATEGY();
+            case PATH_FINDER:
+                return new PATH_FINDER_STRATEGY(game.getTrack(), carIndex);
+            case MONTE_CARLO:
+                return new MONTE_CARLO_STRATEGY(game, carIndex);
+            default:
+                throw new IllegalArgumentException("Strategy " + type + " can not be created headless");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.beryx.textio.TextIO;
+import org.beryx.textio.TextIoFactory;
+import org.beryx.textio.TextTerminal;
+
+/**
+ * Terminal in the Swing window of Text-IO. Creating it starts AWT.
+ *
+ * <p>Text-IO can't overwrite output or move its cursor, it can only remove everything after a bookmark. So this
+ * terminal has no cursor addressing, but keeps a bookmark per line: a changed track is printed again from its first
+ * changed line, not as a whole.</p>
+ */
+class SwingTerminal implements Terminal {
+    private static final String BOOKMARK = "track";
+    private static final String LINE_BOOKMARK = "track line ";
+
+    private final TextIO textIO = TextIoFactory.getTextIO();
+    private final TextTerminal<?> textTerminal = textIO.getTextTerminal();
+
+    @Override
+    public void print(String output) {
+        textTerminal.print(output);
+    }
+
+    @Override
+    public void setBookmark() {
+        textTerminal.setBookmark(BOOKMARK);
+    }
+
+    @Override
+    public void resetToBookmark() {
+        textTerminal.resetToBookmark(BOOKMARK);
+    }
+
+    @Override
+    public boolean supportsLineBookmarks() {
+        return true;
+    }
+
+    @Override
+    public void setLineBookmark(int line) {
+        textTerminal.setBookmark(LINE_BOOKMARK + line);
+    }
+
+    @Override
+    public void resetToLineBookmark(int line) {
+        textTerminal.resetToBookmark(LINE_BOOKMARK + line);
+    }
+
+    /**
+     * The window shows output right away, there is nothing to flush.
+     */
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public int readInt(int min, int max, String prompt) {
+        return textIO.newIntInputReader().withMinVal(min).withMaxVal(max).read(prompt);
+    }
+
+    @Override
+    public char readChar(String prompt) {
+        return textIO.newCharInputReader().read(prompt);
+    }
+
+    @Override
+    public boolean readBoolean(String prompt) {
+        return textIO.newBooleanInputReader().read(prompt);
+    }
+
+    @Override
+    public <T extends Enum<T>> T readEnum(Class<T> enumType, String prompt) {
+        return textIO.newEnumInputReader(enumType).read(prompt);
+    }
+}
@@ -0,0 +1,132 @@
+package ch.zhaw.pm2.racetrack;
+
+/**
+ * Text terminal used by {@link IO}, for output and typed input.
+ *
+ * <p>The backend is chosen once at startup with the system property {@code racetrack.terminal}:
+ * {@code console} for the buffered {@link ConsoleTerminal} on standard input and output, {@code swing} for the
+ * Text-IO window of {@link SwingTerminal}. Without the property, the Swing window is used, unless Java runs
+ * headless ({@code -Djava.awt.headless=true}). The Swing backend is only loaded when it is selected, so console
+ * runs don't start AWT.</p>
+ */
+interface Terminal {
+    String BACKEND_PROPERTY = "racetrack.terminal";
+    String CONSOLE = "console";
+    String SWING = "swing";
+
+    /**
+     * @return the terminal selected at startup, the same instance on every call
+     */
+    static Terminal getDefault() {
+        return DefaultTerminal.INSTANCE;
+    }
+
+    void print(String output);
+
+    /**
+     * Marks the current end of the output, see {@link #resetToBookmark()}. There is a single bookmark.
+     */
+    void setBookmark();
+
+    /**
+     * Removes everything printed after the bookmark.
+     */
+    void resetToBookmark();
+
+    /**
+     * @return true if the terminal can move its cursor back into the output after the bookmark, see
+     * {@link #printAtBookmark(int, int, String)}
+     */
+    default boolean supportsCursorAddressing() {
+        return false;
+    }
+
+    /**
+     * Removes everything printed after the given number of lines after the bookmark.
+     * Only available if the terminal {@link #supportsCursorAddressing()}.
+     *
+     * @param lines number of lines after the bookmark to keep
+     */
+    default void clearAfterBookmark(int lines) {
+        throw new UnsupportedOperationException("No cursor addressing");
+    }
+
+    /**
+     * Overwrites output printed after the bookmark, the cursor goes back to the end of the output afterwards.
+     * Only available if the terminal {@link #supportsCursorAddressing()}.
+     *
+     * @param line   line of the output, counted from the line of the bookmark
+     * @param column column in the line, counted from the bookmark in its line
+     * @param text   text without line breaks
+     */
+    default void printAtBookmark(int line, int column, String text) {
+        throw new UnsupportedOperationException("No cursor addressing");
+    }
+
+    /**
+     * @return true if the terminal keeps a bookmark per line after the bookmark, see {@link #setLineBookmark(int)}
+     */
+    default boolean supportsLineBookmarks() {
+        return false;
+    }
+
+    /**
+     * Marks the current end of the output as the start of the given line after the bookmark.
+     * Only available if the terminal {@link #supportsLineBookmarks()}.
+     *
+     * @param line line of the output, counted from the line of the bookmark
+     */
+    default void setLineBookmark(int line) {
+        throw new UnsupportedOperationException("No line bookmarks");
+    }
+
+    /**
+     * Removes everything printed after the bookmark of the given line, see {@link #setLineBookmark(int)}.
+     * Only available if the terminal {@link #supportsLineBookmarks()}.
+     *
+     * @param line line of the output, counted from the line of the bookmark
+     */
+    default void resetToLineBookmark(int line) {
+        throw new UnsupportedOperationException("No line bookmarks");
+    }
+
+    /**
+     * Writes buffered output to the screen.
+     */
+    void flush();
+
+    int readInt(int min, int max, String prompt);
+
+    char readChar(String prompt);
+
+    boolean readBoolean(String prompt);
+
+    <T extends Enum<T>> T readEnum(Class<T> enumType, String prompt);
+
+    /**
+     * Holder of the default terminal, created on the first call of {@link #getDefault()}.
+     */
+    class DefaultTerminal {
+        private static final Terminal INSTANCE = create(System.getProperty(BACKEND_PROPERTY));
+
+        private DefaultTerminal() {
+        }
+
+        private static Terminal create(String backend) {
+            if (backend == null) {
+                backend = Boolean.getBoolean("java.awt.headless") ? CONSOLE : SWING;
+            }
+            switch (backend) {
+                case CONSOLE:
+                    ConsoleTerminal console = new ConsoleTerminal(System.in, System.out);
+                    Runtime.getRuntime().addShutdownHook(new Thread(console::flush));
+                    return console;
+                case SWING:
+                    return new SwingTerminal();
+                default:
+                    throw new IllegalArgumentException("Unknown terminal " + backend + ", expected "
+                        + CONSOLE + " or " + SWING);
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Round-robin tournament of the headless strategy types on a set of tracks.
+ *
+ * <p>Every ordered pair of two different strategy types plays on every track: the first type drives the cars
+ * with an even index, the second type the cars with an odd index. Playing both orders makes sure no strategy
+ * profits from its start positions. Every pairing is repeated a given number of times.</p>
+ *
+ * <p>Games are played on a {@link ForkJoinPool}: the range of all games is split in halves until the parts are
+ * small enough, so idle threads steal work from busy ones. Results are counted in {@link LongAdder}s per track
+ * and strategy type, so the games never wait for each other.</p>
+ */
+public class Tournament {
+    private static final int DEFAULT_REPETITIONS = 10;
+    private static final int DEFAULT_TURN_LIMIT = 1000;
+    private static final int GAMES_PER_TASK = 4;
+
+    private final List<File> trackFiles;
+    private final List<Config.StrategyType> strategyTypes;
+    private final int repetitions;
+    private final int turnLimit;
+    private final TrackCache trackCache;
+    private final List<Config.StrategyType[]> pairings = new ArrayList<>();
+
+    /**
+     * @param trackFiles    tracks to play on
+     * @param strategyTypes competing strategy types, all of them must be headless
+     * @param repetitions   number of games per track and pairing
+     * @param turnLimit     maximum number of turns per game
+     * @throws IllegalArgumentException if a strategy type is not headless or there are less than two types
+     */
+    public Tournament(List<File> trackFiles, List<Config.StrategyType> strategyTypes, int repetitions,
+                      int turnLimit) {
+        if (strategyTypes.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two strategy types");
+        }
+        for (Config.StrategyType type : strategyTypes) {
+            if (!StrategyFactory.isHeadless(type)) {
+                throw new IllegalArgumentException("Strategy " + type + " can not play headless");
+            }
+        }
+        this.trackFiles = new ArrayList<>(trackFiles);
+        this.strategyTypes = new ArrayList<>(strategyTypes);
+        this.repetitions = repetitions;
+        this.turnLimit = turnLimit;
+        this.trackCache = new TrackCache(Math.max(1, trackFiles.size()));
+        for (Config.StrategyType even : strategyTypes) {
+            for (Config.StrategyType odd : strategyTypes) {
+                if (even != odd) {
+                    pairings.add(new Config.StrategyType[]{even, odd});
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of games played by {@link #run(ForkJoinPool)}
+     */
+    public int getGameCount() {
+        return trackFiles.size() * pairings.size() * repetitions;
+    }
+
+    /**
+     * Plays all games of the tournament and waits until they are finished.
+     *
+     * @param pool pool to play the games on
+     * @return standings of all strategy types on all tracks
+     * @throws IOException                 if a track file could not be read
+     * @throws InvalidTrackFormatException if a track file contains invalid data
+     */
+    public Result run(ForkJoinPool pool) throws IOException, InvalidTrackFormatException {
+        // load every track once up front, so errors are reported before any game is played
+        for (File trackFile : trackFiles) {
+            trackCache.getTrack(trackFile);
+        }
+        Standing[][] standings = new Standing[trackFiles.size()][strategyTypes.size()];
+        for (Standing[] trackStandings : standings) {
+            for (int typeIndex = 0; typeIndex < trackStandings.length; typeIndex++) {
+                trackStandings[typeIndex] = new Standing();
+            }
+        }
+        long start = System.nanoTime();
+        pool.invoke(new GameRange(standings, 0, getGameCount()));
+        return new Result(trackFiles, strategyTypes, standings, getGameCount(), System.nanoTime() - start);
+    }
+
+    private void playGame(int gameIndex, Standing[][] standings) {
+        int trackIndex = gameIndex / (pairings.size() * repetitions);
+        Config.StrategyType[] pairing = pairings.get(gameIndex / repetitions % pairings.size());
+        Game game;
+        try {
+            game = new Game(trackCache.getTrack(trackFiles.get(trackIndex)));
+        } catch (IOException | InvalidTrackFormatException e) {
+            throw new IllegalStateException("Track " + trackFiles.get(trackIndex) + " could not be loaded", e);
+        }
+        int carCount = game.getTrack().getCarCount();
+        List<MoveStrategy> strategies = new ArrayList<>(carCount);
+        for (int carIndex = 0; carIndex < carCount; carIndex++) {
+            strategies.add(StrategyFactory.create(pairing[carIndex % 2], game, carIndex));
+        }
+        GameResult result = GameEngine.run(game, strategies, turnLimit);
+
+        Standing[] trackStandings = standings[trackIndex];
+        for (Config.StrategyType type : pairing) {
+            trackStandings[strategyTypes.indexOf(type)].games.increment();
+        }
+        for (int carIndex = 0; carIndex < carCount; carIndex++) {
+            Standing standing = trackStandings[strategyTypes.indexOf(pairing[carIndex % 2])];
+            standing.cars.increment();
+            if (result.isCrashed(carIndex)) {
+                standing.crashes.increment();
+            }
+        }
+        if (result.hasWinner()) {
+            Standing standing = trackStandings[strategyTypes.indexOf(pairing[result.getWinnerIndex() % 2])];
+            standing.wins.increment();
+            standing.winTurns.add(result.getTurns());
+        }
+    }
+
+    @SuppressWarnings("serial") // tasks are never serialized
+    private class GameRange extends RecursiveAction {
+        private final Standing[][] standings;
+        private final int from;
+        private final int to;
+
+        GameRange(Standing[][] standings, int from, int to) {
+            this.standings = standings;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                for (int gameIndex = from; gameIndex < to; gameIndex++) {
+                    playGame(gameIndex, standings);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GameRange(standings, from, middle), new GameRange(standings, middle, to));
+            }
+        }
+    }
+
+    private static class Standing {
+        private final LongAdder games = new LongAdder();
+        private final LongAdder wins = new LongAdder();
+        private final LongAdder winTurns = new LongAdder();
+        private final LongAdder cars = new LongAdder();
+        private final LongAdder crashes = new LongAdder();
+    }
+
+    /**
+     * Standings of a finished tournament.
+     */
+    public static class Result {
+        private final List<File> trackFiles;
+        private final List<Config.StrategyType> strategyTypes;
+        private final Standing[][] standings;
+        private final int gameCount;
+        private final long elapsedNanos;
+
+        Result(List<File> trackFiles, List<Config.StrategyType> strategyTypes, Standing[][] standings,
+               int gameCount, long elapsedNanos) {
+            this.trackFiles = trackFiles;
+            this.strategyTypes = strategyTypes;
+            this.standings = standings;
+            this.gameCount = gameCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<Config.StrategyType> getStrategyTypes() {
+            return Collections.unmodifiableList(strategyTypes);
+        }
+
+        /**
+         * @param type strategy type
+         * @return number of games the strategy type played, on all tracks
+         */
+        public long getGames(Config.StrategyType type) {
+            return sum(type, standing -> standing.games);
+        }
+
+        /**
+         * @param type strategy type
+         * @return number of games won by a car of this strategy type, on all tracks
+         */
+        public long getWins(Config.StrategyType type) {
+            return sum(type, standing -> standing.wins);
+        }
+
+        /**
+         * @param type strategy type
+         * @return share of played games won by this strategy type, between 0 and 1
+         */
+        public double getWinRate(Config.StrategyType type) {
+            return ratio(getWins(type), getGames(type));
+        }
+
+        /**
+         * @param type strategy type
+         * @return average number of turns of the games won by this strategy type, counting the moves of all cars
+         * (see {@link GameResult#getTurns()}), 0 if it never won
+         */
+        public double getAverageTurns(Config.StrategyType type) {
+            return ratio(sum(type, standing -> standing.winTurns), getWins(type));
+        }
+
+        /**
+         * @param type strategy type
+         * @return share of the cars driven by this strategy type which crashed, between 0 and 1
+         */
+        public double getCrashRate(Config.StrategyType type) {
+            return ratio(sum(type, standing -> standing.crashes), sum(type, standing -> standing.cars));
+        }
+
+        public int getGameCount() {
+            return gameCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getGamesPerSecond() {
+            return gameCount / (elapsedNanos / 1e9);
+        }
+
+        private long sum(Config.StrategyType type, Function<Standing, LongAdder> counter) {
+            int typeIndex = strategyTypes.indexOf(type);
+            long sum = 0;
+            for (Standing[] trackStandings : standings) {
+                sum += counter.apply(trackStandings[typeIndex]).sum();
+            }
+            return sum;
+        }
+
+        private static double ratio(long count, long total) {
+            return total == 0 ? 0 : (double) count / total;
+        }
+
+        /**
+         * @return table of win rate, average turns of all cars to win and crash rate per track and strategy type,
+         * followed by the totals of all tracks
+         */
+        @Override
+        public String toString() {
+            String format = "%-24s %-12s %8s %8s %14s %10s%n";
+            StringBuilder table = new StringBuilder(String.format(format,
+                "Track", "Strategy", "Games", "Wins", "Turns to win", "Crashes"));
+            for (int trackIndex = 0; trackIndex < trackFiles.size(); trackIndex++) {
+                for (int typeIndex = 0; typeIndex < strategyTypes.size(); typeIndex++) {
+                    Standing standing = standings[trackIndex][typeIndex];
+                    long wins = standing.wins.sum();
+                    table.append(String.format(format, trackFiles.get(trackIndex).getName(),
+                        strategyTypes.get(typeIndex), standing.games.sum(),
+                        percent(ratio(wins, standing.games.sum())),
+                        String.format("%.1f", ratio(standing.winTurns.sum(), wins)),
+                        percent(ratio(standing.crashes.sum(), standing.cars.sum()))));
+                }
+            }
+            for (Config.StrategyType type : strategyTypes) {
+                table.append(String.format(format, "all tracks", type, getGames(type), percent(getWinRate(type)),
+                    String.format("%.1f", getAverageTurns(type)), percent(getCrashRate(type))));
+            }
+            table.append(String.format("%d games in %.3f s (%.0f games/s)%n",
+                gameCount, elapsedNanos / 1e9, getGamesPerSecond()));
+            return table.toString();
+        }
+
+        private static String percent(double rate) {
+            return String.format("%.1f%%", rate * 100);
+        }
+    }
+
+    /**
+     * Plays a tournament of all headless strategy types on all tracks in the track directory and prints the
+     * standings. Arguments: [repetitions] [turn limit] [threads]
+     *
+     * @param args command line arguments
+     * @throws Exception if a track can not be loaded or a game fails
+     */
+    public static void main(String[] args) throws Exception {
+        int repetitions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_REPETITIONS;
+        int turnLimit = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TURN_LIMIT;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        File[] trackFiles = Objects.requireNonNull(new Config().getTrackDirectory()
+            .listFiles((dir, name) -> name.endsWith(BinaryTrackFormat.SOURCE_EXTENSION)));
+        Arrays.sort(trackFiles);
+        Tournament tournament = new Tournament(Arrays.asList(trackFiles), StrategyFactory.getHeadlessTypes(),
+            repetitions, turnLimit);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            System.out.print(tournament.run(pool));
+            if (Metrics.ENABLED) {
+                System.out.print(Metrics.report());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -54,16 +54,30 @@ import java.util.Map;
  * </ul>
  *
  * <p>The Track can return a String representing the current state of the race (including car positons)</p>
+ *
+ * <p>Very large tracks can be opened as tiled tracks with {@link #openTiled(File, int)}: the grid is then read from
+ * the track file in chunks on demand (see {@link ChunkedGrid}), instead of being loaded as a whole.</p>
  */
 public class Track {
+    public static final int NO_CAR = -1;
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    public static final int NO_WALL_HIT = SegmentTable.NO_WALL_HIT;
+
+    private static final Config.SpaceType[] SPACE_TYPES = Config.SpaceType.values();
+
     private List<Car> cars = new ArrayList<>();
-    private TrackBuilder builder = new TrackBuilder();
-    private Config.SpaceType[][] grid;
+    private TrackLayout layout; // immutable data, shared by copies of the track
+    private byte[] grid; // row-major Config.SpaceType ordinals, see getSpaceType(int, int), null if tiled
+    private ChunkedGrid chunkedGrid; // grid of a tiled track
+    private Config.SpaceType[][] trackArray;
+    private int[] occupancy; // row-major car index + 1 of the car on each space, 0 if the space is free, null if tiled
     private int width;
     private int height;
 
     /**
      * Initialize a Track from the given track file.
+     * If the track file was compiled to the binary track format (see {@link BinaryTrackFormat}) and the
+     * binary file is up to date, the track is loaded from the binary file instead of parsing the track file.
      *
      * @param  trackFile Reference to a file containing the track data
      * @throws FileNotFoundException if the given track file could not be found
@@ -71,19 +85,121 @@ public class Track {
      */
     public Track(File trackFile) throws IOException, InvalidTrackFormatException
     {
-        grid = builder.buildTrack(trackFile);
-        for(Map.Entry<Character, PositionVector> entry: builder.getCarMap().entrySet()){
-            cars.add(new Car(entry.getValue(), entry.getKey()));
+        this(loadLayout(trackFile));
+    }
+
+    private Track(TrackLayout layout) {
+        setLayout(layout);
+        occupancy = grid != null ? new int[grid.length] : null;
+        for(Map.Entry<Character, PositionVector> entry: layout.getCarStarts().entrySet()){
+            PositionVector position = entry.getValue();
+            occupySpace(cars.size(), position);
+            cars.add(new Car(position, entry.getKey()));
         }
     }
 
+    private static TrackLayout loadLayout(File trackFile) throws IOException, InvalidTrackFormatException {
+        BinaryTrackFormat.TrackData trackData = BinaryTrackFormat.readIfCurrent(trackFile);
+        if (trackData != null) {
+            return new TrackLayout(trackData.getGrid(), trackData.getWidth(), trackData.getHeight(),
+                trackData.getCarMap());
+        }
+        TrackBuilder builder = new TrackBuilder();
+        byte[] packedGrid = builder.buildPackedTrack(trackFile);
+        return new TrackLayout(packedGrid, builder.getTrackWidth(), builder.getTrackHeight(), builder.getCarMap());
+    }
+
+    /**
+     * Opens a very large track as a tiled track, with at most {@link ChunkedGrid#DEFAULT_MAX_CHUNKS} chunks
+     * of the grid in memory, see {@link #openTiled(File, int)}.
+     */
+    public static Track openTiled(File trackFile) throws IOException, InvalidTrackFormatException {
+        return openTiled(trackFile, ChunkedGrid.DEFAULT_MAX_CHUNKS);
+    }
+
+    /**
+     * Opens a very large track as a tiled track. The track file is checked and indexed once, the spaces of the grid
+     * are then decoded from the memory-mapped file in chunks of {@link ChunkedGrid#CHUNK_SIZE} x
+     * {@link ChunkedGrid#CHUNK_SIZE} spaces when they are first needed. {@link #getSpaceType(int, int)} works as for
+     * other tracks, but the memory of the grid only depends on the area the cars visit.
+     *
+     * <p>Data derived from the whole grid ({@link #getFinishDistances()}, {@link #getLapDistances()}) is not available
+     * for tiled tracks, so only strategies which don't need it can be used. The track file must not be changed while
+     * the track is in use.</p>
+     *
+     * @param trackFile Reference to a file containing the track data
+     * @param maxChunks maximum number of chunks kept in memory, the least recently used chunk is dropped first
+     * @return the tiled track
+     * @throws IOException                 if the given track file could not be found or read
+     * @throws InvalidTrackFormatException if the track file contains invalid data
+     */
+    public static Track openTiled(File trackFile, int maxChunks) throws IOException, InvalidTrackFormatException {
+        return new Track(new TrackLayout(new ChunkedGrid(trackFile, maxChunks)));
+    }
+
+    /**
+     * Creates a copy of the given track. The copy shares the grid and all data derived from it with the original,
+     * the cars and their state are copied.
+     */
+    private Track(Track original) {
+        setLayout(original.layout);
+        occupancy = original.occupancy != null ? original.occupancy.clone() : null;
+        for (Car car : original.cars) {
+            cars.add(new Car(car));
+        }
+    }
+
+    private void setLayout(TrackLayout layout) {
+        this.layout = layout;
+        this.grid = layout.getGrid();
+        this.chunkedGrid = layout.getChunkedGrid();
+        this.width = layout.getWidth();
+        this.height = layout.getHeight();
+    }
+
+    /**
+     * Creates a copy of this track for another game. The copy is cheap: it shares the immutable grid and all data
+     * derived from it (e.g. {@link #getFinishDistances()}) with this track. The cars and their current state
+     * are copied, so moving cars on the copy doesn't affect this track and vice versa.
+     *
+     * @return copy of this track
+     */
+    public Track copy() {
+        return new Track(this);
+    }
+
+    /**
+     * Returns the grid as a two dimensional array indexed [x][y].
+     * The array is built on first request from the packed grid; changes to it do not affect the track.
+     *
+     * @return the space types of the grid
+     */
     public Config.SpaceType[][] getTrackArray() {
-        return grid;
+        if (trackArray == null) {
+            Config.SpaceType[][] array = new Config.SpaceType[width][height];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    array[x][y] = getSpaceType(x, y);
+                }
+            }
+            trackArray = array;
+        }
+        return trackArray;
+    }
+
+    /**
+     * @return true if the grid is read in chunks on demand, see {@link #openTiled(File, int)}
+     */
+    public boolean isTiled() {
+        return grid == null;
+    }
+
+    public int getWidth() {
+        return width;
     }
 
-    public void setWidthAndHeight(){
-        this.width = builder.getTrackWidth();
-        this.height = builder.getTrackHeight();
+    public int getHeight() {
+        return height;
     }
 
     public int getCarCount(){
@@ -103,9 +219,255 @@ public class Track {
     }
 
     public Config.SpaceType getSpaceType(PositionVector position){
+        return getSpaceType(position.getX(), position.getY());
+    }
+
+    /**
+     * Returns the space type at the given coordinates without allocating a {@link PositionVector}.
+     * Positions outside of the grid are treated as {@link Config.SpaceType#WALL}.
+     *
+     * @param x horizontal position on the grid
+     * @param y vertical position on the grid
+     * @return the space type at (x, y)
+     */
+    public Config.SpaceType getSpaceType(int x, int y){
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return Config.SpaceType.WALL;
+        }
+        if (grid == null) {
+            return chunkedGrid.getSpaceType(x, y);
+        }
+        return SPACE_TYPES[grid[y * width + x]];
+    }
+
+    /**
+     * Returns the distance field of the track: for every space (row-major, index {@code y * getWidth() + x})
+     * the number of steps to the nearest finish line space, moving to any of the eight neighbour spaces that
+     * is not a WALL. Finish line spaces have the distance 0, spaces without a path to the finish line
+     * (and walls) have the distance {@link #UNREACHABLE}.
+     *
+     * <p>The field is computed with a breadth first search on first request and cached for the lifetime of the
+     * track. Since a car moves at most one space further per turn than in the turn before, the distance is a
+     * lower bound for the remaining path length (e.g. for search heuristics). The returned array must not be
+     * modified.</p>
+     *
+     * @return the distance of every space to the nearest finish line space
+     */
+    public int[] getFinishDistances() {
+        return layout.getFinishDistances();
+    }
+
+    /**
+     * Returns the number of steps from the given space to the nearest finish line space,
+     * see {@link #getFinishDistances()}.
+     *
+     * @param x horizontal position on the grid
+     * @param y vertical position on the grid
+     * @return distance to the finish line, {@link #UNREACHABLE} if there is no path or the position is off the grid
+     */
+    public int getDistanceToFinish(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return UNREACHABLE;
+        }
+        return getFinishDistances()[y * width + x];
+    }
+
+    /**
+     * Returns the directed distance field of the track: like {@link #getFinishDistances()}, but a space only
+     * counts as close to the finish line if the line can be reached from it in its correct direction without
+     * crossing the line first. A car just behind the finish line (e.g. at the start) has to go around the whole
+     * track, and so has a high lap distance. The same goes for a car on the finish line, as it would have won if it
+     * had entered the line in the correct direction. The field is computed on first request and cached for the lifetime
+     * of the track. The returned array must not be modified.
+     *
+     * @return the number of steps from every space to the finish line in its correct direction
+     */
+    public int[] getLapDistances() {
+        return layout.getLapDistances();
+    }
+
+    /**
+     * Returns the number of steps from the given space to the finish line in its correct direction,
+     * see {@link #getLapDistances()}.
+     *
+     * @param x horizontal position on the grid
+     * @param y vertical position on the grid
+     * @return lap distance, {@link #UNREACHABLE} if there is no path or the position is off the grid
+     */
+    public int getLapDistance(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return UNREACHABLE;
+        }
+        return getLapDistances()[y * width + x];
+    }
+
+    /**
+     * Returns where the straight path of a car moving from the given position with the given velocity hits a wall
+     * (or leaves the grid). The path is the one of {@link Game#traversePath(int, int, int, int, PathVisitor)},
+     * the start position itself is not tested. Use {@link Game#getPathPosition(int, int, int, int, int)} to get
+     * the position of the step.
+     *
+     * <p>Walls never change, so the result is memoized in a table of fixed size which is shared by all copies of the
+     * track (see {@link #copy()}): after the first computation, a segment is answered in O(1) as long as its slot
+     * is not taken by another segment. Cars are not considered.</p>
+     *
+     * @param x         horizontal start position
+     * @param y         vertical start position
+     * @param velocityX horizontal component of the velocity
+     * @param velocityY vertical component of the velocity
+     * @return number of steps from the start to the first wall space (1 for the first space after the start),
+     * or {@link #NO_WALL_HIT}
+     */
+    public int getWallHitStep(int x, int y, int velocityX, int velocityY) {
+        return getSegment(x, y, velocityX, velocityY) & ~SegmentTable.FINISH_LINE_FLAG;
+    }
+
+    /**
+     * Same as {@link #getWallHitStep(int, int, int, int)}, combined with {@link SegmentTable#FINISH_LINE_FLAG}
+     * if the path touches the finish line before the wall, including the start position.
+     */
+    int getSegment(int x, int y, int velocityX, int velocityY) {
+        if (grid == null) {
+            return walkSegment(x, y, velocityX, velocityY);
+        }
+        return layout.getSegmentTable().lookup(x, y, velocityX, velocityY);
+    }
+
+    /**
+     * Tests a segment space by space, for tiled tracks which have no segment table.
+     */
+    private int walkSegment(int startX, int startY, int velocityX, int velocityY) {
+        int[] segment = {NO_WALL_HIT};
+        int[] step = {0};
+        Game.traversePath(startX, startY, startX + velocityX, startY + velocityY, (x, y) -> {
+            Config.SpaceType spaceType = getSpaceType(x, y);
+            if (step[0] > 0 && spaceType == Config.SpaceType.WALL) {
+                segment[0] |= step[0];
+                return false;
+            }
+            if (isFinishLine(spaceType)) {
+                segment[0] |= SegmentTable.FINISH_LINE_FLAG;
+            }
+            step[0]++;
+            return true;
+        });
+        return segment[0];
+    }
+
+    /**
+     * Checks if a car other than the given one occupies a space in the given area.
+     * Crashed cars don't occupy a space. Used to skip the live car tests of a path, if no car is close to it.
+     *
+     * @return true if another car is in the area, bounds included
+     */
+    boolean isOtherCarInArea(int carIndex, int minX, int minY, int maxX, int maxY) {
+        for (int index = 0; index < cars.size(); index++) {
+            Car car = cars.get(index);
+            if (index != carIndex && !car.isCrashed()) {
+                int x = car.getPosition().getX();
+                int y = car.getPosition().getY();
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean isFinishLine(Config.SpaceType spaceType) {
+        return spaceType == Config.SpaceType.FINISH_UP || spaceType == Config.SpaceType.FINISH_DOWN
+            || spaceType == Config.SpaceType.FINISH_LEFT || spaceType == Config.SpaceType.FINISH_RIGHT;
+    }
+
+    /**
+     * Returns the index of the car occupying the given space in O(1), using the occupancy index of the track.
+     * Crashed cars do not occupy a space. The lookup does not change any state and can be called from several threads.
+     *
+     * @param x horizontal position on the grid
+     * @param y vertical position on the grid
+     * @return the zero-based index of the car at (x, y), or {@link #NO_CAR} if the space is free
+     */
+    public int getCarIndexAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return NO_CAR;
+        }
+        if (occupancy == null) {
+            return findCarAt(x, y);
+        }
+        return occupancy[y * width + x] - 1;
+    }
+
+    /**
+     * Finds the car at the given space without the occupancy index, which would be as large as the grid
+     * of a tiled track.
+     */
+    private int findCarAt(int x, int y) {
+        for (int index = 0; index < cars.size(); index++) {
+            Car car = cars.get(index);
+            if (!car.isCrashed() && car.getPosition().getX() == x && car.getPosition().getY() == y) {
+                return index;
+            }
+        }
+        return NO_CAR;
+    }
+
+    /**
+     * Moves a car to a new position and updates the occupancy index.
+     * Car positions must only be changed through the track, otherwise the index gets out of date.
+     *
+     * @param carIndex zero-based index of the car
+     * @param position new position of the car
+     */
+    public void moveCar(int carIndex, PositionVector position) {
+        Car car = cars.get(carIndex);
+        releaseSpace(carIndex, car.getPosition());
+        car.setPosition(position);
+        if (!car.isCrashed()) {
+            occupySpace(carIndex, position);
+        }
+    }
+
+    /**
+     * Moves a car to the position where it crashed and marks it as crashed.
+     * The car is removed from the occupancy index, so it is no obstacle for the remaining cars.
+     *
+     * @param carIndex zero-based index of the car
+     * @param position crash position of the car
+     */
+    public void crashCar(int carIndex, PositionVector position) {
+        Car car = cars.get(carIndex);
+        releaseSpace(carIndex, car.getPosition());
+        car.setPosition(position);
+        car.crash();
+    }
+
+    /**
+     * Sets the whole state of a car and updates the occupancy index, e.g. to roll back a game to a snapshot.
+     * If several cars are restored, a car may be restored to a space which is still occupied by a car restored later.
+     */
+    void restoreCar(int carIndex, int x, int y, int velocityX, int velocityY, int lapState, boolean crashed) {
+        Car car = cars.get(carIndex);
+        releaseSpace(carIndex, car.getPosition());
+        car.restore(x, y, velocityX, velocityY, lapState, crashed);
+        if (!crashed) {
+            occupySpace(carIndex, car.getPosition());
+        }
+    }
+
+    private void releaseSpace(int carIndex, PositionVector position) {
+        int x = position.getX();
+        int y = position.getY();
+        if (occupancy != null && getCarIndexAt(x, y) == carIndex) {
+            occupancy[y * width + x] = 0;
+        }
+    }
+
+    private void occupySpace(int carIndex, PositionVector position) {
         int x = position.getX();
         int y = position.getY();
-        return grid[x][y];
+        if (occupancy != null && x >= 0 && y >= 0 && x < width && y < height) {
+            occupancy[y * width + x] = carIndex + 1;
+        }
     }
 
     public List<Car> getCars() {
@@ -1,121 +1,312 @@
 package ch.zhaw.pm2.racetrack;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.*;
 
 /**
  * Reads files and converts the data into a Config.SpaceType array for use as track data.
  *
+ * <p>The file is read in a single pass as raw bytes through a buffered {@link FileChannel}. Every byte is
+ * mapped straight to the ordinal of its {@link Config.SpaceType}, so no intermediate lines or strings are
+ * created. Non-ASCII characters (e.g. car ids) are decoded from UTF-8 on the fly.</p>
+ *
  * @author corrooli
  * @version 200226
  */
 
 public class TrackBuilder {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_CELL_CAPACITY = 1024;
+    private static final byte NO_SPACE_TYPE = -1;
+    private static final byte[] ORDINAL_BY_CHAR = new byte[128];
+
+    static {
+        Arrays.fill(ORDINAL_BY_CHAR, NO_SPACE_TYPE);
+        for (Config.SpaceType spaceType : Config.SpaceType.values()) {
+            if (spaceType != Config.SpaceType.ANY_CAR) {
+                ORDINAL_BY_CHAR[spaceType.getValue()] = (byte) spaceType.ordinal();
+            }
+        }
+    }
+
     private int trackWidth = 0;
     private int trackHeight = 0;
     private int numberOfCars = 0;
-    private Map<Character, PositionVector> carMap = new HashMap<>();
+    private Map<Character, PositionVector> carMap = new LinkedHashMap<>();
+
+    // parser state
+    private File file;
+    private byte[] cells;
+    private int cellCount;
+    private int column;
+    private boolean trackEnded;
+    private int utf8Remaining;
+    private int utf8CodePoint;
+
+    // index state, see indexTrack
+    private boolean indexOnly;
+    private long bytePosition;
+    private long lineStart;
+    private boolean lineDecoded;
+    private boolean carriageReturn;
+    private long[] lineOffsets;
+    private Map<Integer, byte[]> decodedLines;
 
     /**
-     * Main method for track building. Does the following things:
-     * 1. Checks + sets track width
-     * 2. Checks + sets track height
-     * 3. Creates Config.SpaceType array and fills it with data gathered from file
+     * Main method for track building. Does the following things in one pass over the file:
+     * 1. Skips empty lines at the start and stops at the first empty line following the track
+     * 2. Checks + sets track width (all lines must have the same length)
+     * 3. Checks + sets track height
      * 4. Prepares + checks list of cars, including their position and character
-     * 5. Returns the array to Track class.
+     * 5. Returns the Config.SpaceType array to Track class.
+     *
+     * <p>The start position of a car is a {@link Config.SpaceType#TRACK} space in the returned array,
+     * the car itself is available through {@link #getCarMap()}.</p>
      *
      * @param file (provided by IO)
-     * @return trackArray Config.SpaceType array for use with the game
-     * @throws IOException                 if the file couldn't be found
-     * @throws InvalidTrackFormatException if file requirements haven't been met //TODO decide where exactly the exception is thrown
+     * @return trackArray Config.SpaceType array for use with the game, indexed [x][y]
+     * @throws IOException                 if the file couldn't be found or read
+     * @throws InvalidTrackFormatException if file requirements haven't been met
      */
-
     public Config.SpaceType[][] buildTrack(File file) throws IOException, InvalidTrackFormatException {
-        Scanner scanner = new Scanner(file);
+        parse(file);
+        Config.SpaceType[] spaceTypes = Config.SpaceType.values();
+        Config.SpaceType[][] trackArray = new Config.SpaceType[trackWidth][trackHeight];
+        for (int indexY = 0; indexY < trackHeight; indexY++) {
+            int rowOffset = indexY * trackWidth;
+            for (int indexX = 0; indexX < trackWidth; indexX++) {
+                trackArray[indexX][indexY] = spaceTypes[cells[rowOffset + indexX]];
+            }
+        }
+        return trackArray;
+    }
+
+    /**
+     * Same as {@link #buildTrack(File)}, but returns the track in its packed form: a row-major array holding
+     * the ordinal of the {@link Config.SpaceType} of each space. The space at (x, y) is stored at index
+     * {@code y * getTrackWidth() + x}.
+     *
+     * @param file (provided by IO)
+     * @return packed grid of Config.SpaceType ordinals
+     * @throws IOException                 if the file couldn't be found or read
+     * @throws InvalidTrackFormatException if file requirements haven't been met
+     */
+    public byte[] buildPackedTrack(File file) throws IOException, InvalidTrackFormatException {
+        parse(file);
+        return cells;
+    }
+
+    /**
+     * Checks the track file like {@link #buildTrack(File)} and returns the position of each track line in the file,
+     * without keeping the grid. Used to decode parts of the grid later, see {@link ChunkedGrid}.
+     *
+     * <p>A line of single byte characters holds the space at (x, y) at byte {@code getLineOffsets()[y] + x}.
+     * Lines with other characters (e.g. car ids outside of ASCII) are decoded right away and returned by
+     * {@link #getDecodedLines()}; as these characters are cars, there are at most {@link Config#MAX_CARS} of them.</p>
+     *
+     * @param file (provided by IO)
+     * @return byte offset of the start of each track line
+     * @throws IOException                 if the file couldn't be found or read
+     * @throws InvalidTrackFormatException if file requirements haven't been met
+     */
+    long[] indexTrack(File file) throws IOException, InvalidTrackFormatException {
+        indexOnly = true;
+        try {
+            parse(file);
+        } finally {
+            indexOnly = false;
+        }
+        if (lineOffsets.length != trackHeight) {
+            lineOffsets = Arrays.copyOf(lineOffsets, trackHeight);
+        }
+        cells = null;
+        return lineOffsets;
+    }
+
+    /**
+     * @return the lines decoded by {@link #indexTrack(File)}, as Config.SpaceType ordinals by line number
+     */
+    Map<Integer, byte[]> getDecodedLines() {
+        return decodedLines;
+    }
+
+    /**
+     * Returns the ordinal of the space type of a single byte character of a track line. Characters which aren't
+     * a space type are cars, their start position is a {@link Config.SpaceType#TRACK} space.
+     */
+    static byte toOrdinal(byte character) {
+        byte ordinal = character >= 0 ? ORDINAL_BY_CHAR[character] : NO_SPACE_TYPE;
+        return ordinal == NO_SPACE_TYPE ? (byte) Config.SpaceType.TRACK.ordinal() : ordinal;
+    }
 
-        // Creating test track ArrayList for width & height tests
-        ArrayList<String> trackCheckArray = new ArrayList<>();
-        while (scanner.hasNext()) {
-            trackCheckArray.add(scanner.next());
+    private void parse(File file) throws IOException, InvalidTrackFormatException {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        RaceEvents.TrackLoadEvent event = new RaceEvents.TrackLoadEvent();
+        event.begin();
+        readTrack(file);
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file.getPath();
+            event.width = trackWidth;
+            event.height = trackHeight;
+            event.cars = numberOfCars;
+            event.commit();
+        }
+        if (Metrics.ENABLED) {
+            Metrics.TRACK_LOAD_NANOS.record(System.nanoTime() - start);
+        }
+    }
+
+    private void readTrack(File file) throws IOException, InvalidTrackFormatException {
+        reset(file);
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(1, Math.min(channel.size(), READ_BUFFER_SIZE)));
+            byte[] bytes = buffer.array();
+            long bufferStart = 0;
+            while (!trackEnded && channel.read(buffer) > 0) {
+                int limit = buffer.position();
+                for (int index = 0; index < limit && !trackEnded; index++) {
+                    bytePosition = bufferStart + index;
+                    readByte(bytes[index]);
+                }
+                bufferStart += limit;
+                buffer.clear();
+            }
+        }
+        if (column > 0) {
+            endLine();
         }
 
         // Checking if no lines are present
-        if (trackCheckArray.isEmpty()) {
+        if (trackHeight == 0) {
             throw new InvalidTrackFormatException(file, ErrorType.NO_TRACK_LINES);
         }
+        if (!indexOnly && cells.length != cellCount) {
+            cells = Arrays.copyOf(cells, cellCount);
+        }
+    }
 
-        // Checking if lines are same length
-        for (int index = 1; index < trackCheckArray.size() + 1; ++index) {
-            if (trackCheckArray.get(index - 1).length() != trackCheckArray.get(index).length()) {
-                throw new InvalidTrackFormatException(file, ErrorType.NOT_SAME_LENGTH);
+    private void reset(File file) {
+        this.file = file;
+        trackWidth = 0;
+        trackHeight = 0;
+        numberOfCars = 0;
+        carMap = new LinkedHashMap<>();
+        cells = new byte[INITIAL_CELL_CAPACITY];
+        cellCount = 0;
+        column = 0;
+        trackEnded = false;
+        utf8Remaining = 0;
+        lineStart = 0;
+        lineDecoded = false;
+        carriageReturn = false;
+        lineOffsets = indexOnly ? new long[INITIAL_CELL_CAPACITY] : null;
+        decodedLines = indexOnly ? new HashMap<>() : null;
+    }
+
+    private void readByte(byte value) throws InvalidTrackFormatException {
+        if (value >= 0) {
+            utf8Remaining = 0;
+            switch (value) {
+                case '\n':
+                    endLine();
+                    break;
+                case '\r':
+                    // part of the line separator
+                    carriageReturn = true;
+                    break;
+                default:
+                    addSpace((char) value);
             }
+            return;
         }
-
-        // Setting track width
-        String[] firstLine = scanner.nextLine().trim().split("\\s+");
-        for (int index = 0; index < firstLine.length; index++) {
-            trackWidth++;
-        }
-
-        // Setting track height
-        trackHeight = trackCheckArray.size();
-
-        // Initializing track array with width + height data gathered before
-        Config.SpaceType[][] trackArray = new Config.SpaceType[trackHeight][trackWidth];
-
-        // Filling the array with track data
-        while (scanner.hasNext()) {
-            for (int indexY = 0; indexY < trackHeight; indexY++) {
-                // TODO: break loop if empty line is detected
-                String[] fillArray = scanner.next().split("(?!^)");
-                for (int indexX = 0; indexX < fillArray.length; indexX++) {
-                    switch (fillArray[indexX]) {
-                        case "#":
-                            trackArray[indexX][indexY] = Config.SpaceType.WALL;
-                            indexX++;
-                            break;
-                        case " ":
-                            trackArray[indexX][indexY] = Config.SpaceType.TRACK;
-                            indexX++;
-                            break;
-                        case "^":
-                            trackArray[indexX][indexY] = Config.SpaceType.FINISH_UP;
-                            indexX++;
-                            break;
-                        case "v":
-                            trackArray[indexX][indexY] = Config.SpaceType.FINISH_DOWN;
-                            indexX++;
-                            break;
-                        case "<":
-                            trackArray[indexX][indexY] = Config.SpaceType.FINISH_LEFT;
-                            indexX++;
-                            break;
-                        case ">":
-                            trackArray[indexX][indexY] = Config.SpaceType.FINISH_RIGHT;
-                            indexX++;
-                            break;
-                        default:
-                            // checking if number of cars exceed the allowed amount
-                            if (numberOfCars > Config.MAX_CARS) {
-                                throw new InvalidTrackFormatException(file, ErrorType.TOO_MANY_CARS);
-                            } else {
-                                // check if car character is already taken
-                                if (carMap.containsKey(fillArray[indexX].charAt(0))) {
-                                    throw new InvalidTrackFormatException(file, ErrorType.TOO_MANY_CARS);
-                                } else {
-                                    numberOfCars++;
-                                    carMap.put(fillArray[indexX].charAt(0), new PositionVector(indexX, indexY));
-                                }
-                            }
-                            trackArray[indexX][indexY] = Config.SpaceType.ANY_CAR;
-                            indexX++;
-                    }
+        // multi byte characters don't have a fixed byte offset in the line
+        lineDecoded = true;
+        if ((value & 0xC0) == 0x80) {
+            // continuation byte of a multi byte character
+            if (utf8Remaining > 0) {
+                utf8CodePoint = (utf8CodePoint << 6) | (value & 0x3F);
+                if (--utf8Remaining == 0) {
+                    addSpace(Character.isBmpCodePoint(utf8CodePoint) ? (char) utf8CodePoint : '\uFFFD');
                 }
             }
-            scanner.close();
+        } else if ((value & 0xE0) == 0xC0) {
+            utf8Remaining = 1;
+            utf8CodePoint = value & 0x1F;
+        } else if ((value & 0xF0) == 0xE0) {
+            utf8Remaining = 2;
+            utf8CodePoint = value & 0x0F;
+        } else {
+            utf8Remaining = 3;
+            utf8CodePoint = value & 0x07;
         }
-        return trackArray;
+    }
+
+    private void endLine() throws InvalidTrackFormatException {
+        long nextLineStart = bytePosition + 1;
+        carriageReturn = false;
+        if (column == 0) {
+            // empty lines before the track are skipped, the first one after it ends the track
+            trackEnded = trackHeight > 0;
+            lineStart = nextLineStart;
+            return;
+        }
+        if (trackHeight == 0) {
+            trackWidth = column;
+        } else if (column != trackWidth) {
+            throw new InvalidTrackFormatException(file, ErrorType.NOT_SAME_LENGTH);
+        }
+        if (indexOnly) {
+            indexLine();
+        }
+        trackHeight++;
+        column = 0;
+        lineStart = nextLineStart;
+    }
+
+    private void indexLine() {
+        if (trackHeight == lineOffsets.length) {
+            lineOffsets = Arrays.copyOf(lineOffsets, lineOffsets.length * 2);
+        }
+        lineOffsets[trackHeight] = lineStart;
+        if (lineDecoded) {
+            decodedLines.put(trackHeight, Arrays.copyOf(cells, cellCount));
+        }
+        // only the current line is kept
+        cellCount = 0;
+        lineDecoded = false;
+    }
+
+    private void addSpace(char character) throws InvalidTrackFormatException {
+        // a carriage return inside of a line shifts the following spaces
+        lineDecoded |= carriageReturn;
+        // Checking if lines are same length
+        if (trackHeight > 0 && column >= trackWidth) {
+            throw new InvalidTrackFormatException(file, ErrorType.NOT_SAME_LENGTH);
+        }
+        byte ordinal = character < ORDINAL_BY_CHAR.length ? ORDINAL_BY_CHAR[character] : NO_SPACE_TYPE;
+        if (ordinal == NO_SPACE_TYPE) {
+            addCar(character);
+            ordinal = (byte) Config.SpaceType.TRACK.ordinal();
+        }
+        if (cellCount == cells.length) {
+            cells = Arrays.copyOf(cells, cells.length * 2);
+        }
+        cells[cellCount++] = ordinal;
+        column++;
+    }
+
+    private void addCar(char carId) throws InvalidTrackFormatException {
+        // checking if number of cars exceed the allowed amount or car character is already taken
+        if (numberOfCars >= Config.MAX_CARS || carMap.containsKey(carId)) {
+            throw new InvalidTrackFormatException(file, ErrorType.TOO_MANY_CARS);
+        }
+        numberOfCars++;
+        carMap.put(carId, PositionVector.of(column, trackHeight));
     }
 
     public int getTrackWidth() {
@@ -135,4 +326,3 @@ public class TrackBuilder {
     }
 
 }
-
@@ -0,0 +1,114 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of loaded tracks in front of {@link Track#Track(File)}.
+ *
+ * <p>Tracks are cached by the canonical path of the track file together with its modification time,
+ * so a changed file is loaded again. The cache holds at most a given number of tracks and evicts the least
+ * recently used one when it is full. Callers get a copy of the cached track (see {@link Track#copy()}):
+ * copies share the grid and all data derived from it, but every copy has its own cars.</p>
+ *
+ * <p>The cache can be used from several threads.</p>
+ */
+public class TrackCache {
+    public static final int DEFAULT_MAX_SIZE = 16;
+
+    private final Map<String, CachedTrack> tracks;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TrackCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize maximum number of cached tracks
+     */
+    public TrackCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        tracks = new LinkedHashMap<String, CachedTrack>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedTrack> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns a new track for a game, loaded from the given file or copied from the cache.
+     *
+     * @param trackFile Reference to a file containing the track data
+     * @return a track with all cars at their start position
+     * @throws IOException                 if the track file could not be read
+     * @throws InvalidTrackFormatException if the track file contains invalid data
+     */
+    public Track getTrack(File trackFile) throws IOException, InvalidTrackFormatException {
+        String path = trackFile.getCanonicalPath();
+        long lastModified = trackFile.lastModified();
+        CachedTrack cached;
+        synchronized (tracks) {
+            cached = tracks.get(path);
+        }
+        if (cached != null && cached.lastModified == lastModified) {
+            hits.increment();
+            return cached.track.copy();
+        }
+        misses.increment();
+        // the prototype is never handed out, so its cars always stay at the start position
+        Track prototype = new Track(trackFile);
+        synchronized (tracks) {
+            tracks.put(path, new CachedTrack(prototype, lastModified));
+        }
+        return prototype.copy();
+    }
+
+    /**
+     * @return number of requests answered from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of requests which had to load the track file
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of cached tracks
+     */
+    public int size() {
+        synchronized (tracks) {
+            return tracks.size();
+        }
+    }
+
+    /**
+     * Removes all tracks from the cache. The hit and miss counters are not reset.
+     */
+    public void clear() {
+        synchronized (tracks) {
+            tracks.clear();
+        }
+    }
+
+    private static class CachedTrack {
+        private final Track track;
+        private final long lastModified;
+
+        CachedTrack(Track track, long lastModified) {
+            this.track = track;
+            this.lastModified = lastModified;
+        }
+    }
+}
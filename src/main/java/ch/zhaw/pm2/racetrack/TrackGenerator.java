@@ -0,0 +1,372 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates ring shaped track files of any size from a seed, e.g. for stress and scaling tests.
+ *
+ * <p>The track is a closed corridor around the center of the grid. Its center line is an ellipse filling the grid,
+ * whose radius is varied by a few random harmonics: the higher the curviness, the more and the deeper the curves.
+ * A space belongs to the corridor if its distance to the center line, measured along the radius, is at most half
+ * the corridor width. The cars drive clockwise. The finish line cuts the corridor at the side of the ring where the
+ * cars move in the direction of the line (top for {@link Config.SpaceType#FINISH_RIGHT}, right for
+ * {@link Config.SpaceType#FINISH_DOWN}, bottom for {@link Config.SpaceType#FINISH_LEFT} and left for
+ * {@link Config.SpaceType#FINISH_UP}), the cars start just behind it, like on the hand-drawn tracks.</p>
+ *
+ * <p>The same seed and settings always give the same track. Generated tracks follow the format of
+ * {@link TrackBuilder}. The grid is generated and written row by row, so tracks too large for an array (open them
+ * with {@link Track#openTiled(File)}) can be written as well.</p>
+ */
+public class TrackGenerator {
+    public static final int MIN_CORRIDOR_WIDTH = 3;
+    private static final double MAX_AMPLITUDE = 0.5;
+    private static final int MAX_HARMONICS = 4;
+    private static final int MIN_SAMPLES = 1024;
+    private static final char[] CAR_IDS = "abcdefghi".toCharArray();
+    // largest array most JVMs can allocate
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final long seed;
+    private final int width;
+    private final int height;
+    private int corridorWidth;
+    private double curviness = 0.5;
+    private Config.SpaceType finishLine = Config.SpaceType.FINISH_RIGHT;
+    private int carCount = 2;
+
+    /**
+     * Creates a generator with the default settings: a corridor width of a tenth of the smaller side of the grid
+     * (at least {@link #MIN_CORRIDOR_WIDTH}), a curviness of 0.5, a finish line to the right and two cars.
+     *
+     * @param seed   seed of the random curves
+     * @param width  width of the grid
+     * @param height height of the grid
+     */
+    public TrackGenerator(long seed, int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Track size must be positive");
+        }
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.corridorWidth = Math.max(MIN_CORRIDOR_WIDTH, Math.min(width, height) / 10);
+    }
+
+    /**
+     * @param corridorWidth width of the corridor in spaces, at least {@link #MIN_CORRIDOR_WIDTH}
+     */
+    public void setCorridorWidth(int corridorWidth) {
+        if (corridorWidth < MIN_CORRIDOR_WIDTH) {
+            throw new IllegalArgumentException("Corridor must be at least " + MIN_CORRIDOR_WIDTH + " spaces wide");
+        }
+        this.corridorWidth = corridorWidth;
+    }
+
+    /**
+     * @param curviness between 0 (an ellipse) and 1 (deep curves)
+     */
+    public void setCurviness(double curviness) {
+        if (!(curviness >= 0 && curviness <= 1)) {
+            throw new IllegalArgumentException("Curviness must be between 0 and 1");
+        }
+        this.curviness = curviness;
+    }
+
+    /**
+     * @param finishLine one of the finish line space types, the direction the cars have to cross the line
+     */
+    public void setFinishLine(Config.SpaceType finishLine) {
+        if (!Track.isFinishLine(finishLine)) {
+            throw new IllegalArgumentException(finishLine + " is no finish line");
+        }
+        this.finishLine = finishLine;
+    }
+
+    /**
+     * @param carCount number of cars, between 1 and {@link Config#MAX_CARS}
+     */
+    public void setCarCount(int carCount) {
+        if (carCount < 1 || carCount > Config.MAX_CARS) {
+            throw new IllegalArgumentException("Number of cars must be between 1 and " + Config.MAX_CARS);
+        }
+        this.carCount = carCount;
+    }
+
+    /**
+     * Generates the track into an array. Use {@link #write(OutputStream)} for tracks with more spaces than an
+     * array can hold.
+     *
+     * @return characters of the grid, row-major, without line separators
+     * @throws IllegalArgumentException if the corridor or the cars don't fit into a grid of this size,
+     *                                  or the grid doesn't fit into an array
+     */
+    public byte[] generate() {
+        if ((long) width * height > MAX_ARRAY_SIZE) {
+            throw new IllegalArgumentException("A grid of " + width + "x" + height
+                + " spaces doesn't fit into an array, write it to a file instead");
+        }
+        Ring ring = new Ring();
+        byte[] spaces = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            ring.drawRow(y, spaces, y * width);
+        }
+        return spaces;
+    }
+
+    /**
+     * Writes the generated track to the given file.
+     *
+     * @throws IOException              if the file can't be written
+     * @throws IllegalArgumentException if the corridor or the cars don't fit into a grid of this size
+     */
+    public void write(File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes the generated track to the given stream, one line per row. The rows are generated one at a time,
+     * so the memory needed doesn't depend on the height of the track.
+     *
+     * @throws IOException              if the stream can't be written
+     * @throws IllegalArgumentException if the corridor or the cars don't fit into a grid of this size
+     */
+    public void write(OutputStream out) throws IOException {
+        Ring ring = new Ring();
+        byte[] line = new byte[width + 1];
+        line[width] = '\n';
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        for (int y = 0; y < height; y++) {
+            ring.drawRow(y, line, 0);
+            buffered.write(line);
+        }
+        buffered.flush();
+    }
+
+    private PositionVector getDirection() {
+        switch (finishLine) {
+            case FINISH_RIGHT:
+                return PositionVector.Direction.RIGHT.vector;
+            case FINISH_DOWN:
+                return PositionVector.Direction.DOWN.vector;
+            case FINISH_LEFT:
+                return PositionVector.Direction.LEFT.vector;
+            default:
+                return PositionVector.Direction.UP.vector;
+        }
+    }
+
+    /**
+     * Shape of the track for the current settings: the center line of the corridor and the few spaces of the
+     * finish line and the cars. The grid is drawn from it row by row.
+     */
+    private class Ring {
+        private final double centerX = (width - 1) / 2.0;
+        private final double centerY = (height - 1) / 2.0;
+        private final double halfCorridor = corridorWidth / 2.0;
+        private final double[] centerLine;
+        private final double minRadius;
+        private final double maxRadius;
+        // finish line and car spaces, at most a few corridor widths
+        private final List<int[]> markedSpaces = new ArrayList<>();
+
+        /**
+         * @throws IllegalArgumentException if the corridor or the cars don't fit into a grid of this size
+         */
+        private Ring() {
+            SplittableRandom random = new SplittableRandom(seed);
+            // one wall around the corridor
+            double radiusX = centerX - halfCorridor - 1;
+            double radiusY = centerY - halfCorridor - 1;
+            double amplitude = MAX_AMPLITUDE * curviness;
+            if ((1 - amplitude) * Math.min(radiusX, radiusY) <= corridorWidth + 1) {
+                throw new IllegalArgumentException("Corridor of " + corridorWidth + " spaces doesn't fit into "
+                    + width + "x" + height);
+            }
+            centerLine = sampleCenterLine(random, radiusX, radiusY, amplitude);
+            minRadius = (1 - amplitude) * Math.min(radiusX, radiusY) - halfCorridor;
+            maxRadius = Math.max(radiusX, radiusY) + halfCorridor;
+            placeFinishLine();
+        }
+
+        /**
+         * Draws a row of the grid.
+         *
+         * @param y      row
+         * @param spaces array the row is drawn into
+         * @param offset index of the first space of the row in the array
+         */
+        private void drawRow(int y, byte[] spaces, int offset) {
+            Arrays.fill(spaces, offset, offset + width, (byte) Config.SpaceType.WALL.getValue());
+            double offsetY = y - centerY;
+            if (Math.abs(offsetY) <= maxRadius) {
+                // only the spaces between the smallest and the largest radius of the corridor are tested
+                double outer = Math.sqrt(maxRadius * maxRadius - offsetY * offsetY);
+                double inner = Math.abs(offsetY) < minRadius ? Math.sqrt(minRadius * minRadius - offsetY * offsetY) : 0;
+                carveRow(spaces, offset, y, (int) Math.floor(centerX - outer), (int) Math.ceil(centerX - inner));
+                carveRow(spaces, offset, y, (int) Math.floor(centerX + inner), (int) Math.ceil(centerX + outer));
+            }
+            for (int[] space : markedSpaces) {
+                if (space[1] == y) {
+                    spaces[offset + space[0]] = (byte) space[2];
+                }
+            }
+        }
+
+        private void carveRow(byte[] spaces, int offset, int y, int fromX, int toX) {
+            for (int x = Math.max(1, fromX); x <= Math.min(width - 2, toX); x++) {
+                if (isCorridor(x, y)) {
+                    spaces[offset + x] = (byte) Config.SpaceType.TRACK.getValue();
+                }
+            }
+        }
+
+        private boolean isCorridor(int x, int y) {
+            if (x < 1 || y < 1 || x > width - 2 || y > height - 2) {
+                return false;
+            }
+            double offsetX = x - centerX;
+            double offsetY = y - centerY;
+            double radius = Math.hypot(offsetX, offsetY);
+            return Math.abs(radius - getCenterRadius(centerLine, Math.atan2(offsetY, offsetX))) <= halfCorridor;
+        }
+
+        /**
+         * Marks the finish line across the corridor where the center line has the direction of the line,
+         * and the cars behind it.
+         */
+        private void placeFinishLine() {
+            double angle;
+            switch (finishLine) {
+                case FINISH_RIGHT:
+                    angle = -Math.PI / 2;
+                    break;
+                case FINISH_DOWN:
+                    angle = 0;
+                    break;
+                case FINISH_LEFT:
+                    angle = Math.PI / 2;
+                    break;
+                default:
+                    angle = Math.PI;
+            }
+            double radius = getCenterRadius(centerLine, angle);
+            int lineX = (int) Math.round(centerX + radius * Math.cos(angle));
+            int lineY = (int) Math.round(centerY + radius * Math.sin(angle));
+            PositionVector direction = getDirection();
+            // the line runs across the direction of the cars, from wall to wall
+            int acrossX = direction.getY() != 0 ? 1 : 0;
+            int acrossY = direction.getX() != 0 ? 1 : 0;
+            int first = 0;
+            while (isCorridor(lineX + (first - 1) * acrossX, lineY + (first - 1) * acrossY)) {
+                first--;
+            }
+            int last = 0;
+            while (isCorridor(lineX + (last + 1) * acrossX, lineY + (last + 1) * acrossY)) {
+                last++;
+            }
+            for (int index = first; index <= last; index++) {
+                markedSpaces.add(new int[]{lineX + index * acrossX, lineY + index * acrossY, finishLine.getValue()});
+            }
+            // the cars stand at least two spaces behind the line, so they never take a marked space
+            int car = 0;
+            for (int distance = 2; car < carCount && distance < corridorWidth + 2; distance++) {
+                for (int index = first; index <= last && car < carCount; index++) {
+                    int x = lineX + index * acrossX + distance * direction.getX();
+                    int y = lineY + index * acrossY + distance * direction.getY();
+                    if (isCorridor(x, y)) {
+                        markedSpaces.add(new int[]{x, y, CAR_IDS[car++]});
+                    }
+                }
+            }
+            if (car < carCount) {
+                throw new IllegalArgumentException("No space for " + carCount + " cars behind the finish line");
+            }
+        }
+    }
+
+    /**
+     * Samples the radius of the center line for angles from -PI to PI, see {@link #getCenterRadius(double[], double)}.
+     */
+    private double[] sampleCenterLine(SplittableRandom random, double radiusX, double radiusY, double amplitude) {
+        int harmonics = 1 + (int) Math.round(curviness * (MAX_HARMONICS - 1));
+        double[] weights = new double[harmonics];
+        double[] phases = new double[harmonics];
+        double weightSum = 0;
+        for (int harmonic = 0; harmonic < harmonics; harmonic++) {
+            weights[harmonic] = (0.5 + random.nextDouble() / 2) / (harmonic + 2);
+            phases[harmonic] = random.nextDouble() * 2 * Math.PI;
+            weightSum += weights[harmonic];
+        }
+        int samples = MIN_SAMPLES;
+        while (samples < 8 * Math.max(radiusX, radiusY)) {
+            samples <<= 1;
+        }
+        double[] centerLine = new double[samples];
+        for (int sample = 0; sample < samples; sample++) {
+            double angle = -Math.PI + 2 * Math.PI * sample / samples;
+            double wave = 0;
+            for (int harmonic = 0; harmonic < harmonics; harmonic++) {
+                wave += weights[harmonic] * Math.sin((harmonic + 2) * angle + phases[harmonic]);
+            }
+            // the factor is between 1 - amplitude and 1, so the ring stays inside of the grid
+            double factor = 1 - amplitude * (1 + wave / weightSum) / 2;
+            double ellipse = radiusX * radiusY
+                / Math.hypot(radiusY * Math.cos(angle), radiusX * Math.sin(angle));
+            centerLine[sample] = factor * ellipse;
+        }
+        return centerLine;
+    }
+
+    private static double getCenterRadius(double[] centerLine, double angle) {
+        int sample = (int) Math.round((angle + Math.PI) / (2 * Math.PI) * centerLine.length);
+        return centerLine[sample & (centerLine.length - 1)];
+    }
+
+    /**
+     * Writes a generated track file.
+     * Arguments: file seed width height [corridorWidth] [curviness] [finish line character] [cars]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: TrackGenerator file seed width height [corridorWidth] [curviness] "
+                + "[finish line ^ v < >] [cars]");
+            System.exit(1);
+        }
+        TrackGenerator generator = new TrackGenerator(Long.parseLong(args[1]), Integer.parseInt(args[2]),
+            Integer.parseInt(args[3]));
+        if (args.length > 4) {
+            generator.setCorridorWidth(Integer.parseInt(args[4]));
+        }
+        if (args.length > 5) {
+            generator.setCurviness(Double.parseDouble(args[5]));
+        }
+        if (args.length > 6) {
+            generator.setFinishLine(parseFinishLine(args[6]));
+        }
+        if (args.length > 7) {
+            generator.setCarCount(Integer.parseInt(args[7]));
+        }
+        File file = new File(args[0]);
+        generator.write(file);
+        System.out.println("Generated " + args[2] + "x" + args[3] + " track " + file);
+    }
+
+    private static Config.SpaceType parseFinishLine(String value) {
+        for (Config.SpaceType spaceType : Config.SpaceType.values()) {
+            if (Track.isFinishLine(spaceType) && value.equals(String.valueOf(spaceType.getValue()))) {
+                return spaceType;
+            }
+        }
+        throw new IllegalArgumentException("Unknown finish line " + value);
+    }
+}
@@ -0,0 +1,228 @@
+package ch.zhaw.pm2.racetrack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable part of a {@link Track}: the packed grid, the start positions of the cars and all data derived
+ * from the grid. A layout is shared by all copies of a track (see {@link Track#copy()}),
+ * derived data is computed on first request and then cached for all of them.
+ *
+ * <p>The grid of a tiled track is a {@link ChunkedGrid} instead of the packed grid. The data derived from the whole
+ * grid is not available for tiled tracks.</p>
+ */
+class TrackLayout {
+    private static final Config.SpaceType[] SPACE_TYPES = Config.SpaceType.values();
+
+    private final byte[] grid; // row-major Config.SpaceType ordinals, null for a tiled track
+    private final ChunkedGrid chunkedGrid;
+    private final int width;
+    private final int height;
+    private final Map<Character, PositionVector> carStarts;
+    private volatile int[] finishDistances;
+    private volatile int[] lapDistances;
+    private volatile SegmentTable segmentTable;
+
+    TrackLayout(byte[] grid, int width, int height, Map<Character, PositionVector> carStarts) {
+        this.grid = grid;
+        this.chunkedGrid = null;
+        this.width = width;
+        this.height = height;
+        this.carStarts = Collections.unmodifiableMap(new LinkedHashMap<>(carStarts));
+    }
+
+    TrackLayout(ChunkedGrid chunkedGrid) {
+        this.grid = null;
+        this.chunkedGrid = chunkedGrid;
+        this.width = chunkedGrid.getWidth();
+        this.height = chunkedGrid.getHeight();
+        this.carStarts = Collections.unmodifiableMap(new LinkedHashMap<>(chunkedGrid.getCarStarts()));
+    }
+
+    byte[] getGrid() {
+        return grid;
+    }
+
+    /**
+     * @return grid of a tiled track, null if the track has a packed grid
+     */
+    ChunkedGrid getChunkedGrid() {
+        return chunkedGrid;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    Map<Character, PositionVector> getCarStarts() {
+        return carStarts;
+    }
+
+    /**
+     * @return distance field of the grid, see {@link Track#getFinishDistances()}
+     */
+    int[] getFinishDistances() {
+        int[] distances = finishDistances;
+        if (distances == null) {
+            requirePackedGrid();
+            distances = computeFinishDistances();
+            finishDistances = distances;
+        }
+        return distances;
+    }
+
+    /**
+     * @return directed distance field of the grid, see {@link Track#getLapDistances()}
+     */
+    int[] getLapDistances() {
+        int[] distances = lapDistances;
+        if (distances == null) {
+            requirePackedGrid();
+            distances = computeLapDistances();
+            lapDistances = distances;
+        }
+        return distances;
+    }
+
+    /**
+     * @return table of memoized wall tests, see {@link Track#getWallHitStep(int, int, int, int)}
+     */
+    SegmentTable getSegmentTable() {
+        SegmentTable table = segmentTable;
+        if (table == null) {
+            synchronized (this) {
+                table = segmentTable;
+                if (table == null) {
+                    requirePackedGrid();
+                    table = new SegmentTable(
+                        new SpaceBitset(grid, width, height, EnumSet.of(Config.SpaceType.WALL), true),
+                        new SpaceBitset(grid, width, height, EnumSet.of(Config.SpaceType.FINISH_UP,
+                            Config.SpaceType.FINISH_DOWN, Config.SpaceType.FINISH_LEFT, Config.SpaceType.FINISH_RIGHT),
+                            false),
+                        grid.length);
+                    segmentTable = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    private void requirePackedGrid() {
+        if (grid == null) {
+            throw new UnsupportedOperationException("Not available for tiled tracks");
+        }
+    }
+
+    private int[] computeFinishDistances() {
+        int[] distances = new int[grid.length];
+        Arrays.fill(distances, Track.UNREACHABLE);
+        int[] queue = new int[grid.length];
+        int tail = 0;
+        for (int index = 0; index < grid.length; index++) {
+            if (Track.isFinishLine(SPACE_TYPES[grid[index]])) {
+                distances[index] = 0;
+                queue[tail++] = index;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int index = queue[head];
+            int x = index % width;
+            int y = index / width;
+            int nextDistance = distances[index] + 1;
+            for (int neighbourY = Math.max(0, y - 1); neighbourY <= Math.min(height - 1, y + 1); neighbourY++) {
+                for (int neighbourX = Math.max(0, x - 1); neighbourX <= Math.min(width - 1, x + 1); neighbourX++) {
+                    int neighbour = neighbourY * width + neighbourX;
+                    if (distances[neighbour] == Track.UNREACHABLE && grid[neighbour] != Config.SpaceType.WALL.ordinal()) {
+                        distances[neighbour] = nextDistance;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        return distances;
+    }
+
+    private int[] computeLapDistances() {
+        int[] distances = new int[grid.length];
+        Arrays.fill(distances, Track.UNREACHABLE);
+        int[] queue = new int[grid.length];
+        int tail = 0;
+        for (int index = 0; index < grid.length; index++) {
+            Config.SpaceType spaceType = SPACE_TYPES[grid[index]];
+            if (Track.isFinishLine(spaceType)) {
+                distances[index] = 0;
+            }
+        }
+        // the space in front of a finish line space, seen in the direction of the line, is one step from the finish
+        for (int index = 0; index < grid.length; index++) {
+            PositionVector direction = getLineDirection(SPACE_TYPES[grid[index]]);
+            if (direction != null) {
+                int x = index % width - direction.getX();
+                int y = index / width - direction.getY();
+                int approach = y * width + x;
+                if (x >= 0 && y >= 0 && x < width && y < height && distances[approach] == Track.UNREACHABLE
+                    && grid[approach] != Config.SpaceType.WALL.ordinal()) {
+                    distances[approach] = 1;
+                    queue[tail++] = approach;
+                }
+            }
+        }
+        // same search as for the finish distances, but the finish line can't be crossed
+        for (int head = 0; head < tail; head++) {
+            int index = queue[head];
+            int x = index % width;
+            int y = index / width;
+            int nextDistance = distances[index] + 1;
+            for (int neighbourY = Math.max(0, y - 1); neighbourY <= Math.min(height - 1, y + 1); neighbourY++) {
+                for (int neighbourX = Math.max(0, x - 1); neighbourX <= Math.min(width - 1, x + 1); neighbourX++) {
+                    int neighbour = neighbourY * width + neighbourX;
+                    if (distances[neighbour] == Track.UNREACHABLE && grid[neighbour] != Config.SpaceType.WALL.ordinal()) {
+                        distances[neighbour] = nextDistance;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+        // a car can only stand on the finish line if it didn't win, so it still has to go around from there
+        for (int index = 0; index < grid.length; index++) {
+            PositionVector direction = getLineDirection(SPACE_TYPES[grid[index]]);
+            if (direction != null) {
+                distances[index] = Track.UNREACHABLE;
+                int steps = 1;
+                int x = index % width + direction.getX();
+                int y = index / width + direction.getY();
+                while (x >= 0 && y >= 0 && x < width && y < height && Track.isFinishLine(SPACE_TYPES[grid[y * width + x]])) {
+                    steps++;
+                    x += direction.getX();
+                    y += direction.getY();
+                }
+                if (x >= 0 && y >= 0 && x < width && y < height && distances[y * width + x] != Track.UNREACHABLE) {
+                    distances[index] = distances[y * width + x] + steps;
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static PositionVector getLineDirection(Config.SpaceType spaceType) {
+        switch (spaceType) {
+            case FINISH_UP:
+                return PositionVector.Direction.UP.vector;
+            case FINISH_DOWN:
+                return PositionVector.Direction.DOWN.vector;
+            case FINISH_LEFT:
+                return PositionVector.Direction.LEFT.vector;
+            case FINISH_RIGHT:
+                return PositionVector.Direction.RIGHT.vector;
+            default:
+                return null;
+        }
+    }
+}
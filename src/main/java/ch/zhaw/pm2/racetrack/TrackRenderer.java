@@ -0,0 +1,190 @@
+package ch.zhaw.pm2.racetrack;
+
+/**
+ * Renders a track and its cars as text, for output on a terminal.
+ *
+ * <p>The characters of the grid (see {@link Config.SpaceType#getValue()}) are rendered once into a {@code char[]}
+ * buffer, with a line separator at the end of each row. Cars are drawn into the buffer with their id.
+ * {@link #update()} only redraws the spaces a car left or entered since the last update, and remembers them
+ * as changed spaces. The buffer can then be written as a whole with {@link #drawFrame()}, as a single string,
+ * or only the changed spaces can be passed to a terminal which can place its cursor with
+ * {@link #drawChanges(SpaceWriter)}. A terminal which can only remove output from its end gets the rows from the
+ * first changed row on with {@link #drawRows(int, RowWriter)}.</p>
+ */
+public class TrackRenderer {
+    private static final char LINE_SEPARATOR = '\n';
+    private static final int NOT_DRAWN = -1;
+
+    private final Track track;
+    private final int rowLength;
+    private final char[] background;
+    private final char[] frame;
+    private final int[] carCells;
+
+    // changed spaces since the last draw, as indexes into the frame
+    private final boolean[] changed;
+    private final int[] changedCells;
+    private int changedCount;
+
+    /**
+     * Receives the changed spaces of the track, see {@link #drawChanges(SpaceWriter)}.
+     */
+    public interface SpaceWriter {
+        /**
+         * @param x         horizontal position of the space
+         * @param y         vertical position of the space, the line of the frame
+         * @param character character of the space, the id of a car or the space type
+         */
+        void write(int x, int y, char character);
+    }
+
+    /**
+     * Receives rows of the track, see {@link #drawRows(int, RowWriter)}.
+     */
+    public interface RowWriter {
+        /**
+         * @param y   vertical position of the row, the line of the frame
+         * @param row characters of the row, with the line separator
+         */
+        void write(int y, String row);
+    }
+
+    /**
+     * @param track track to render, the renderer follows the cars of this track
+     */
+    public TrackRenderer(Track track) {
+        this.track = track;
+        rowLength = track.getWidth() + 1;
+        background = new char[rowLength * track.getHeight()];
+        for (int y = 0; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                background[y * rowLength + x] = track.getSpaceType(x, y).getValue();
+            }
+            background[y * rowLength + track.getWidth()] = LINE_SEPARATOR;
+        }
+        frame = background.clone();
+        changed = new boolean[frame.length];
+        changedCells = new int[frame.length];
+        carCells = new int[track.getCarCount()];
+        for (int carIndex = 0; carIndex < carCells.length; carIndex++) {
+            carCells[carIndex] = NOT_DRAWN;
+        }
+        update();
+        clearChanges();
+    }
+
+    /**
+     * Redraws the cars which moved since the last update.
+     *
+     * @return true if any space changed since the last draw
+     */
+    public boolean update() {
+        for (int carIndex = 0; carIndex < carCells.length; carIndex++) {
+            int cell = cellOf(track.getCarPos(carIndex));
+            int oldCell = carCells[carIndex];
+            if (cell != oldCell) {
+                if (oldCell != NOT_DRAWN) {
+                    frame[oldCell] = background[oldCell];
+                    markChanged(oldCell);
+                }
+                carCells[carIndex] = cell;
+                if (cell != NOT_DRAWN) {
+                    markChanged(cell);
+                }
+            }
+        }
+        // a space left by one car may still hold another car, e.g. a car crashed into it
+        for (int carIndex = 0; carIndex < carCells.length; carIndex++) {
+            int cell = carCells[carIndex];
+            if (cell != NOT_DRAWN && changed[cell]) {
+                frame[cell] = track.getCarId(carIndex);
+            }
+        }
+        return changedCount > 0;
+    }
+
+    /**
+     * Returns the whole track with all cars and clears the changed spaces.
+     *
+     * @return text of the track, one line per row
+     */
+    public String drawFrame() {
+        clearChanges();
+        return new String(frame);
+    }
+
+    /**
+     * Passes the spaces changed since the last draw to the given writer and clears the changed spaces.
+     * The positions are those of the frame, see {@link #drawFrame()}.
+     *
+     * @param writer writer of the changed spaces, e.g. printing them at their position on the terminal
+     */
+    public void drawChanges(SpaceWriter writer) {
+        for (int index = 0; index < changedCount; index++) {
+            int cell = changedCells[index];
+            writer.write(cell % rowLength, cell / rowLength, frame[cell]);
+        }
+        clearChanges();
+    }
+
+    /**
+     * Passes the rows from the given row to the last row to the given writer and clears the changed spaces.
+     *
+     * @param fromRow first row to write, e.g. {@link #getFirstChangedRow()}
+     * @param writer  writer of the rows
+     */
+    public void drawRows(int fromRow, RowWriter writer) {
+        for (int y = fromRow; y < track.getHeight(); y++) {
+            writer.write(y, new String(frame, y * rowLength, rowLength));
+        }
+        clearChanges();
+    }
+
+    /**
+     * @return the first row with a space changed since the last draw, or the number of rows if nothing changed
+     */
+    public int getFirstChangedRow() {
+        int firstCell = frame.length;
+        for (int index = 0; index < changedCount; index++) {
+            firstCell = Math.min(firstCell, changedCells[index]);
+        }
+        return firstCell / rowLength;
+    }
+
+    /**
+     * @return number of rows of the frame, each ends with a line separator
+     */
+    public int getRowCount() {
+        return track.getHeight();
+    }
+
+    /**
+     * @return number of spaces changed since the last draw
+     */
+    public int getChangedCount() {
+        return changedCount;
+    }
+
+    private int cellOf(PositionVector position) {
+        int x = position.getX();
+        int y = position.getY();
+        if (x < 0 || y < 0 || x >= track.getWidth() || y >= track.getHeight()) {
+            return NOT_DRAWN;
+        }
+        return y * rowLength + x;
+    }
+
+    private void markChanged(int cell) {
+        if (!changed[cell]) {
+            changed[cell] = true;
+            changedCells[changedCount++] = cell;
+        }
+    }
+
+    private void clearChanges() {
+        for (int index = 0; index < changedCount; index++) {
+            changed[changedCells[index]] = false;
+        }
+        changedCount = 0;
+    }
+}
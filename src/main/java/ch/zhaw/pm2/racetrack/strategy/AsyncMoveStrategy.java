@@ -0,0 +1,35 @@
+package ch.zhaw.pm2.racetrack.strategy;
+
+import java.util.concurrent.CompletableFuture;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+/**
+ * Move strategy which chooses its move in the background, within a time budget per turn.
+ *
+ * <p>The game engine waits for the returned future at most for the time budget. If the move isn't ready by then,
+ * it plays {@link #bestMoveSoFar()} or, if the strategy has none, a default move. The late call is stale: until its
+ * future is done, the engine plays the default move for the car without calling the strategy again, then it drops
+ * the late move and asks for a new one. So {@link #nextMove(long)} is never called while the future of the
+ * previous call is pending. Strategies which search for their move should stop at the end of the budget on their
+ * own, the engine doesn't interrupt them.</p>
+ */
+public interface AsyncMoveStrategy {
+
+    /**
+     * Starts choosing the next move. Must be called when the car of this strategy is the current car of the game.
+     *
+     * @param timeBudgetMillis time until the move is needed
+     * @return future completed with the next move
+     */
+    CompletableFuture<Direction> nextMove(long timeBudgetMillis);
+
+    /**
+     * Returns the best move found so far by the move being chosen, used when the time budget runs out.
+     *
+     * @return the best move so far, or null if the strategy can't tell
+     */
+    default Direction bestMoveSoFar() {
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class BinaryTrackFormatTest {
+    private File trackFile;
+
+    @BeforeEach
+    public void init() throws IOException {
+        File directory = Files.createTempDirectory("racetrack").toFile();
+        directory.deleteOnExit();
+        trackFile = new File(directory, "challenge.txt");
+        trackFile.deleteOnExit();
+        Files.copy(new File("tracks/challenge.txt").toPath(), trackFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Test
+    public void compiledTrackMatchesSource() throws IOException, InvalidTrackFormatException {
+        File binaryFile = BinaryTrackFormat.compile(trackFile);
+        binaryFile.deleteOnExit();
+        Assertions.assertEquals(new File(trackFile.getParentFile(), "challenge.rtb"), binaryFile);
+
+        BinaryTrackFormat.TrackData trackData = BinaryTrackFormat.readIfCurrent(trackFile);
+        Assertions.assertNotNull(trackData);
+        TrackBuilder builder = new TrackBuilder();
+        Assertions.assertArrayEquals(builder.buildPackedTrack(trackFile), trackData.getGrid());
+        Assertions.assertEquals(builder.getTrackWidth(), trackData.getWidth());
+        Assertions.assertEquals(builder.getTrackHeight(), trackData.getHeight());
+        Assertions.assertEquals(builder.getCarMap(), trackData.getCarMap());
+
+        Track track = new Track(trackFile);
+        Assertions.assertEquals('a', track.getCarId(0));
+        Assertions.assertEquals(Config.SpaceType.FINISH_RIGHT, track.getSpaceType(22, 22));
+    }
+
+    @Test
+    public void staleOrMissingBinaryIsIgnored() throws IOException, InvalidTrackFormatException {
+        Assertions.assertNull(BinaryTrackFormat.readIfCurrent(trackFile));
+        BinaryTrackFormat.compile(trackFile).deleteOnExit();
+        Files.write(trackFile.toPath(), "\n".getBytes(), StandardOpenOption.APPEND);
+        Assertions.assertNull(BinaryTrackFormat.readIfCurrent(trackFile));
+        Assertions.assertEquals(2, new Track(trackFile).getCarCount());
+    }
+
+    @Test
+    public void touchedSourceIsCheckedOnce() throws IOException, InvalidTrackFormatException {
+        File binaryFile = BinaryTrackFormat.compile(trackFile);
+        binaryFile.deleteOnExit();
+        long modified = trackFile.lastModified() + 60_000;
+        Assertions.assertTrue(trackFile.setLastModified(modified));
+        Assertions.assertNotNull(BinaryTrackFormat.readIfCurrent(trackFile));
+        long storedModified = ByteBuffer.wrap(Files.readAllBytes(binaryFile.toPath())).getLong(4 + 8);
+        Assertions.assertEquals(trackFile.lastModified(), storedModified);
+
+        // same length, but other content
+        byte[] source = Files.readAllBytes(trackFile.toPath());
+        int carA = new String(source, StandardCharsets.US_ASCII).indexOf('a');
+        source[carA] = ' ';
+        Files.write(trackFile.toPath(), source);
+        Assertions.assertTrue(trackFile.setLastModified(modified + 60_000));
+        Assertions.assertNull(BinaryTrackFormat.readIfCurrent(trackFile));
+    }
+
+    @Test
+    public void corruptBinaryIsIgnored() throws IOException, InvalidTrackFormatException {
+        File binaryFile = BinaryTrackFormat.compile(trackFile);
+        binaryFile.deleteOnExit();
+        byte[] original = Files.readAllBytes(binaryFile.toPath());
+        TrackBuilder builder = new TrackBuilder();
+        builder.buildPackedTrack(trackFile);
+        int carCount = builder.getCarMap().size();
+        int headerSize = 4 + 8 + 8 + 8 + 4 + 4 + 4;
+        int gridStart = headerSize + carCount * (2 + 4 + 4);
+
+        // a grid byte which is no space type
+        byte[] badGrid = original.clone();
+        badGrid[gridStart + 5] = (byte) Config.SpaceType.values().length;
+        Files.write(binaryFile.toPath(), badGrid);
+        Assertions.assertNull(BinaryTrackFormat.readIfCurrent(trackFile));
+
+        // x of the first car outside of the grid
+        byte[] badCar = original.clone();
+        badCar[headerSize + 2] = 0x7f;
+        Files.write(binaryFile.toPath(), badCar);
+        Assertions.assertNull(BinaryTrackFormat.readIfCurrent(trackFile));
+
+        // first car moved onto the wall in the top left corner
+        byte[] carOnWall = original.clone();
+        for (int index = headerSize + 2; index < headerSize + 10; index++) {
+            carOnWall[index] = 0;
+        }
+        Files.write(binaryFile.toPath(), carOnWall);
+        Assertions.assertNull(BinaryTrackFormat.readIfCurrent(trackFile));
+        Assertions.assertEquals(PositionVector.of(24, 22), new Track(trackFile).getCarPos(0));
+    }
+}
@@ -0,0 +1,99 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+public class ChunkedGridTest {
+    private static final String[] TRACKS = {"challenge.txt", "oval-anticlock-right.txt", "oval-clock-up.txt",
+        "quarter-mile.txt"};
+
+    @Test
+    public void tiledTracksMatchLoadedTracks() throws IOException, InvalidTrackFormatException {
+        for (String trackName : TRACKS) {
+            File trackFile = new File("tracks/" + trackName);
+            assertSameTrack(new Track(trackFile), Track.openTiled(trackFile, 1));
+        }
+    }
+
+    @Test
+    public void largeTrackWithWideCharactersAndCarriageReturns() throws IOException, InvalidTrackFormatException {
+        int width = 300;
+        int height = 200;
+        Random random = new Random(21);
+        StringBuilder text = new StringBuilder("\r\n");
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (x == 150 && y == 100) {
+                    text.append('\u00e4');
+                } else if (x == 7 && y == 3) {
+                    text.append('a');
+                } else {
+                    text.append("#  <>^v".charAt(random.nextInt(7)));
+                }
+            }
+            text.append("\r\n");
+        }
+        text.append("\r\nnot part of the track");
+        File trackFile = File.createTempFile("large", ".txt");
+        trackFile.deleteOnExit();
+        Files.write(trackFile.toPath(), text.toString().getBytes(StandardCharsets.UTF_8));
+
+        Track tiled = Track.openTiled(trackFile, 4);
+        assertSameTrack(new Track(trackFile), tiled);
+        Assertions.assertEquals('\u00e4', tiled.getCarId(1));
+        Assertions.assertEquals(PositionVector.of(150, 100), tiled.getCarPos(1));
+    }
+
+    @Test
+    public void onlyVisitedChunksAreLoaded() throws IOException, InvalidTrackFormatException {
+        ChunkedGrid grid = new ChunkedGrid(new File("tracks/challenge.txt"), 2);
+        Assertions.assertEquals(0, grid.getChunkLoads());
+        grid.getSpaceType(3, 3);
+        grid.getSpaceType(10, 5);
+        Assertions.assertEquals(1, grid.getChunkLoads());
+        grid.getSpaceType(ChunkedGrid.CHUNK_SIZE, 0);
+        grid.getSpaceType(3, 3);
+        Assertions.assertEquals(2, grid.getChunkLoads());
+        Assertions.assertEquals(2, grid.getResidentChunks());
+    }
+
+    @Test
+    public void gamesOnTiledTracksMatchLoadedTracks() throws IOException, InvalidTrackFormatException {
+        File trackFile = new File("tracks/challenge.txt");
+        Game loaded = new Game(new Track(trackFile));
+        Game tiled = new Game(Track.openTiled(trackFile, 2));
+        PositionVector.Direction[] directions = PositionVector.Direction.values();
+        Random random = new Random(3);
+        for (int turn = 0; turn < 200 && loaded.getWinner() == Game.NO_WINNER; turn++) {
+            PositionVector.Direction direction = directions[random.nextInt(directions.length)];
+            loaded.doCarTurn(direction);
+            tiled.doCarTurn(direction);
+            loaded.switchToNextActiveCar();
+            tiled.switchToNextActiveCar();
+            Assertions.assertArrayEquals(loaded.snapshot(), tiled.snapshot());
+        }
+    }
+
+    private static void assertSameTrack(Track expected, Track actual) {
+        Assertions.assertTrue(actual.isTiled());
+        Assertions.assertEquals(expected.getWidth(), actual.getWidth());
+        Assertions.assertEquals(expected.getHeight(), actual.getHeight());
+        Assertions.assertEquals(expected.getCarCount(), actual.getCarCount());
+        for (int carIndex = 0; carIndex < expected.getCarCount(); carIndex++) {
+            Assertions.assertEquals(expected.getCarId(carIndex), actual.getCarId(carIndex));
+            Assertions.assertEquals(expected.getCarPos(carIndex), actual.getCarPos(carIndex));
+        }
+        for (int y = -1; y <= expected.getHeight(); y++) {
+            for (int x = -1; x <= expected.getWidth(); x++) {
+                Assertions.assertEquals(expected.getSpaceType(x, y), actual.getSpaceType(x, y), x + "," + y);
+                Assertions.assertEquals(expected.getCarIndexAt(x, y), actual.getCarIndexAt(x, y), x + "," + y);
+            }
+        }
+    }
+}
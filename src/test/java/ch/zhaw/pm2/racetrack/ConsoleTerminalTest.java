@@ -0,0 +1,91 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+
+public class ConsoleTerminalTest {
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Test
+    public void invalidInputIsAskedAgain() {
+        ConsoleTerminal terminal = terminal("x\n9\n 3 \n");
+        Assertions.assertEquals(3, terminal.readInt(1, 5, "Choose: "));
+        String text = output();
+        Assertions.assertEquals(3, text.split("Choose: ", -1).length - 1);
+        Assertions.assertTrue(text.contains("between 1 and 5"));
+    }
+
+    @Test
+    public void directionsAreReadByNumberOrName() {
+        ConsoleTerminal terminal = terminal("up\n5\n");
+        IO io = new IO(terminal);
+        Assertions.assertEquals(PositionVector.Direction.UP, io.directionInputReader("Accelerate: "));
+        Assertions.assertEquals(PositionVector.Direction.values()[4], io.directionInputReader("Accelerate: "));
+        USER_STRATEGY user = new USER_STRATEGY(new IO(terminal("left\n")));
+        Assertions.assertEquals(PositionVector.Direction.LEFT, user.nextMove());
+    }
+
+    @Test
+    public void outputIsBufferedUntilFlush() {
+        ConsoleTerminal terminal = terminal("");
+        terminal.print("track\n");
+        Assertions.assertEquals("", output());
+        terminal.flush();
+        Assertions.assertEquals("track\n", output());
+    }
+
+    @Test
+    public void resetMovesBackToBookmark() {
+        ConsoleTerminal terminal = terminal("y\n");
+        terminal.print("Welcome\nrow: ");
+        terminal.setBookmark();
+        terminal.print("#  #\n#ab#\n");
+        Assertions.assertTrue(terminal.readBoolean("Again? "));
+        terminal.resetToBookmark();
+        terminal.print("#ab#");
+        terminal.flush();
+        // two track lines and the line of the prompt, then back to the column after "row: "
+        Assertions.assertTrue(output().endsWith("Again? \r\u001b[3A\u001b[5C\u001b[J#ab#"), output());
+    }
+
+    @Test
+    public void trackIsUpdatedByChangedSpacesOnly() throws IOException, InvalidTrackFormatException {
+        Track track = new Track(new File("tracks/challenge.txt"));
+        TrackRenderer renderer = new TrackRenderer(track);
+        IO io = new IO(terminal(""));
+        io.printTrack(renderer);
+        io.print("Your move\n");
+        track.moveCar(0, PositionVector.of(20, 22));
+        io.printTrack(renderer);
+        io.flush();
+
+        String frame = new TrackRenderer(new Track(new File("tracks/challenge.txt"))).drawFrame();
+        int linesUp = track.getHeight() - 22;
+        String escape = "\u001b[";
+        // the prompt is removed, then the space the car left and the space it entered are overwritten
+        Assertions.assertEquals(frame + "Your move\n" + "\r" + escape + "1A" + escape + "J"
+            + escape + linesUp + "A" + escape + "25G " + escape + linesUp + "B" + escape + "1G"
+            + escape + linesUp + "A" + escape + "21Ga" + escape + linesUp + "B" + escape + "1G", output());
+    }
+
+    @Test
+    public void endOfInputFails() {
+        ConsoleTerminal terminal = terminal("");
+        Assertions.assertThrows(UncheckedIOException.class, () -> terminal.readChar("Char: "));
+    }
+
+    private ConsoleTerminal terminal(String input) {
+        return new ConsoleTerminal(new ByteArrayInputStream(input.getBytes(Charset.defaultCharset())), output);
+    }
+
+    private String output() {
+        return new String(output.toByteArray(), Charset.defaultCharset());
+    }
+}
@@ -0,0 +1,142 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class GameEngineTest {
+    private Track track;
+
+    @BeforeEach
+    public void init() throws IOException, InvalidTrackFormatException {
+        track = new Track(new File("tracks/challenge.txt"));
+    }
+
+    @Test
+    public void gameStopsAtTurnLimit() {
+        List<MoveStrategy> strategies = Arrays.asList(new DO_NOT_MOVE_STRATEGY(), new DO_NOT_MOVE_STRATEGY());
+        GameResult result = GameEngine.run(track, strategies, 10);
+        Assertions.assertFalse(result.hasWinner());
+        Assertions.assertEquals(10, result.getTurns());
+        Assertions.assertEquals(0, result.getCrashedCarCount());
+    }
+
+    @Test
+    public void remainingCarWinsAfterCrash() {
+        MoveStrategy crashIntoWall = () -> PositionVector.Direction.UP;
+        GameResult result = GameEngine.run(track, Arrays.asList(crashIntoWall, new DO_NOT_MOVE_STRATEGY()), 10);
+        Assertions.assertTrue(result.hasWinner());
+        Assertions.assertEquals('b', result.getWinnerId());
+        Assertions.assertEquals(1, result.getTurns());
+        Assertions.assertTrue(result.isCrashed(0));
+    }
+
+    @Test
+    public void strategyCountMustMatchCarCount() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> GameEngine.run(track, Collections.singletonList(new DO_NOT_MOVE_STRATEGY()), 10));
+    }
+
+    @Test
+    public void slowStrategyGetsDefaultMove() {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        MoveStrategy slowCrashIntoWall = () -> {
+            calls.incrementAndGet();
+            awaitQuietly(release);
+            return PositionVector.Direction.UP;
+        };
+        try {
+            GameResult result = GameEngine.run(new Game(track),
+                Arrays.asList(game -> slowCrashIntoWall, game -> new DO_NOT_MOVE_STRATEGY()), 4, 20,
+                PositionVector.Direction.NONE);
+            Assertions.assertFalse(result.hasWinner());
+            Assertions.assertEquals(4, result.getTurns());
+            Assertions.assertEquals(0, result.getCrashedCarCount());
+            // the strategy isn't asked again while its first call is still running
+            Assertions.assertEquals(1, calls.get());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void lateMoveIsDroppedAndStrategyAskedAgain() {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch lateMoveReturned = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        // the first answer comes late and would crash the car into the wall above it, later answers are in time
+        MoveStrategy lateCrashIntoWall = () -> {
+            if (calls.incrementAndGet() > 1) {
+                return PositionVector.Direction.NONE;
+            }
+            awaitQuietly(release);
+            lateMoveReturned.countDown();
+            return PositionVector.Direction.UP;
+        };
+        MoveStrategy releaseLateMove = () -> {
+            release.countDown();
+            awaitQuietly(lateMoveReturned);
+            return PositionVector.Direction.NONE;
+        };
+        Game game = new Game(track);
+        GameResult result = GameEngine.run(game, Arrays.asList(g -> lateCrashIntoWall, g -> releaseLateMove),
+            6, 200, PositionVector.Direction.NONE);
+        Assertions.assertEquals(0, result.getCrashedCarCount());
+        Assertions.assertFalse(result.hasWinner());
+        Assertions.assertEquals(PositionVector.of(24, 22), track.getCarPos(0));
+        Assertions.assertTrue(calls.get() >= 2, "strategy asked again after the late move");
+    }
+
+    @Test
+    public void strategiesPlayOnCopyOfGame() {
+        Game game = new Game(track);
+        List<Game> strategyGames = new ArrayList<>();
+        AtomicInteger differentStates = new AtomicInteger();
+        Function<Game, MoveStrategy> factory = strategyGame -> {
+            strategyGames.add(strategyGame);
+            return () -> {
+                if (!Arrays.equals(game.snapshot(), strategyGame.snapshot())) {
+                    differentStates.incrementAndGet();
+                }
+                return PositionVector.Direction.RIGHT;
+            };
+        };
+        GameEngine.run(game, Arrays.asList(factory, factory), 6, 1000, PositionVector.Direction.NONE);
+        Assertions.assertEquals(2, strategyGames.size());
+        for (Game strategyGame : strategyGames) {
+            Assertions.assertNotSame(game, strategyGame);
+            Assertions.assertNotSame(track, strategyGame.getTrack());
+        }
+        Assertions.assertEquals(0, differentStates.get());
+    }
+
+    @Test
+    public void fastStrategiesAreNotAffectedByTimeBudget() {
+        MoveStrategy crashIntoWall = () -> PositionVector.Direction.UP;
+        GameResult result = GameEngine.run(new Game(track),
+            Arrays.asList(game -> crashIntoWall, game -> new DO_NOT_MOVE_STRATEGY()), 10, 1000,
+            PositionVector.Direction.NONE);
+        Assertions.assertEquals('b', result.getWinnerId());
+        Assertions.assertEquals(1, result.getTurns());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,7 +1,124 @@
 package ch.zhaw.pm2.racetrack;
 
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
 public class GameTest {
+    private Game game;
+
+    @BeforeEach
+    public void init() throws IOException, InvalidTrackFormatException {
+        game = new Game(new Track(new File("tracks/challenge.txt")));
+    }
+
+    @Test
+    public void calculateShallowPath() {
+        List<PositionVector> path = game.calculatePath(new PositionVector(0, 0), new PositionVector(4, 2));
+        Assertions.assertEquals(Arrays.asList(new PositionVector(0, 0), new PositionVector(1, 0),
+            new PositionVector(2, 1), new PositionVector(3, 1), new PositionVector(4, 2)), path);
+    }
+
+    @Test
+    public void calculateSteepPath() {
+        List<PositionVector> path = game.calculatePath(new PositionVector(5, 5), new PositionVector(4, 1));
+        Assertions.assertEquals(5, path.size());
+        Assertions.assertEquals(new PositionVector(5, 5), path.get(0));
+        Assertions.assertEquals(new PositionVector(4, 1), path.get(4));
+        for (int index = 1; index < path.size(); index++) {
+            Assertions.assertEquals(path.get(index - 1).getY() - 1, path.get(index).getY());
+        }
+    }
+
+    @Test
+    public void traversePathStopsWhenVisitorReturnsFalse() {
+        List<PositionVector> visited = new ArrayList<>();
+        boolean completed = Game.traversePath(0, 0, 6, 0, (x, y) -> {
+            visited.add(new PositionVector(x, y));
+            return x < 3;
+        });
+        Assertions.assertFalse(completed);
+        Assertions.assertEquals(4, visited.size());
+    }
+
+    @Test
+    public void carMovesByItsVelocity() {
+        PositionVector start = game.getCarPosition(0);
+        game.doCarTurn(Direction.LEFT);
+        game.doCarTurn(Direction.NONE);
+        Assertions.assertEquals(new PositionVector(start.getX() - 2, start.getY()), game.getCarPosition(0));
+        Assertions.assertEquals(Game.NO_WINNER, game.getWinner());
+    }
+
+    @Test
+    public void carCrashesIntoWall() {
+        game.doCarTurn(Direction.UP);
+        Assertions.assertTrue(game.getTrack().getCar(0).isCrashed());
+        Assertions.assertEquals(Config.SpaceType.WALL, game.getTrack().getSpaceType(game.getCarPosition(0)));
+    }
+
+    @Test
+    public void carCrashesIntoOtherCar() {
+        game.doCarTurn(Direction.DOWN);
+        game.switchToNextActiveCar();
+        game.doCarTurn(Direction.NONE);
+        game.switchToNextActiveCar();
+        game.doCarTurn(Direction.NONE);
+        Track track = game.getTrack();
+        Assertions.assertTrue(track.getCar(0).isCrashed());
+        Assertions.assertEquals(game.getCarPosition(1), game.getCarPosition(0));
+        Assertions.assertEquals(1, track.getCarIndexAt(game.getCarPosition(1).getX(), game.getCarPosition(1).getY()));
+        Assertions.assertEquals(1, game.getWinner());
+    }
+
+    @Test
+    public void crossingFinishLineBackwardsAndBackDoesNotWin() {
+        for (Direction move : new Direction[]{Direction.LEFT, Direction.LEFT, Direction.RIGHT, Direction.RIGHT,
+            Direction.RIGHT, Direction.RIGHT}) {
+            game.doCarTurn(move);
+        }
+        Assertions.assertEquals(new PositionVector(23, 22), game.getCarPosition(0));
+        Assertions.assertEquals(Game.NO_WINNER, game.getWinner());
+    }
+
+    @Test
+    public void restoreUndoesCrashAndWinner() {
+        Track track = game.getTrack();
+        PositionVector start = game.getCarPosition(0);
+        long[] snapshot = game.snapshot();
+        game.doCarTurn(Direction.DOWN);
+        game.switchToNextActiveCar();
+        game.doCarTurn(Direction.NONE);
+        game.switchToNextActiveCar();
+        game.doCarTurn(Direction.NONE);
+        Assertions.assertEquals(1, game.getWinner());
+
+        game.restore(snapshot);
+        Assertions.assertEquals(Game.NO_WINNER, game.getWinner());
+        Assertions.assertEquals(0, game.getCurrentCarIndex());
+        Assertions.assertFalse(track.getCar(0).isCrashed());
+        Assertions.assertEquals(start, game.getCarPosition(0));
+        Assertions.assertEquals(new PositionVector(0, 0), game.getCarVelocity(0));
+        Assertions.assertEquals(0, track.getCarIndexAt(start.getX(), start.getY()));
+        Assertions.assertArrayEquals(snapshot, game.snapshot());
+    }
 
+    @Test
+    public void copyDoesNotChangeOriginal() {
+        game.doCarTurn(Direction.LEFT);
+        Game copy = game.copy();
+        Assertions.assertArrayEquals(game.snapshot(), copy.snapshot());
+        copy.doCarTurn(Direction.LEFT);
+        Assertions.assertEquals(new PositionVector(23, 22), game.getCarPosition(0));
+        Assertions.assertEquals(new PositionVector(21, 22), copy.getCarPosition(0));
+        Assertions.assertEquals(Track.NO_CAR, game.getTrack().getCarIndexAt(21, 22));
+    }
 }
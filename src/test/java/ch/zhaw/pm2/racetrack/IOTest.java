@@ -0,0 +1,96 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class IOTest {
+
+    @Test
+    public void trackIsPrintedAgainFromFirstChangedRow() throws IOException, InvalidTrackFormatException {
+        Track track = new Track(new File("tracks/challenge.txt"));
+        TrackRenderer renderer = new TrackRenderer(track);
+        BookmarkTerminal terminal = new BookmarkTerminal();
+        IO io = new IO(terminal);
+        io.print("Racetrack\n");
+        io.printTrack(renderer);
+        io.print("Your move\n");
+        track.moveCar(1, PositionVector.of(20, 23));
+        io.printTrack(renderer);
+
+        // only the rows from the one of the moved car on are printed again
+        Assertions.assertEquals(track.getHeight() + (track.getHeight() - 23), terminal.prints.size() - 2);
+        String expected = "Racetrack\n" + new TrackRenderer(track).drawFrame();
+        Assertions.assertEquals(expected, terminal.output.toString());
+    }
+
+    /**
+     * Terminal which can only remove output after a bookmark, like the Swing window of Text-IO.
+     */
+    private static class BookmarkTerminal implements Terminal {
+        private final StringBuilder output = new StringBuilder();
+        private final Map<String, Integer> bookmarks = new HashMap<>();
+        private final List<String> prints = new ArrayList<>();
+
+        @Override
+        public void print(String text) {
+            prints.add(text);
+            output.append(text);
+        }
+
+        @Override
+        public void setBookmark() {
+            bookmarks.put("track", output.length());
+        }
+
+        @Override
+        public void resetToBookmark() {
+            output.setLength(bookmarks.get("track"));
+        }
+
+        @Override
+        public boolean supportsLineBookmarks() {
+            return true;
+        }
+
+        @Override
+        public void setLineBookmark(int line) {
+            bookmarks.put("line " + line, output.length());
+        }
+
+        @Override
+        public void resetToLineBookmark(int line) {
+            output.setLength(bookmarks.get("line " + line));
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public int readInt(int min, int max, String prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public char readChar(String prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean readBoolean(String prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T extends Enum<T>> T readEnum(Class<T> enumType, String prompt) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
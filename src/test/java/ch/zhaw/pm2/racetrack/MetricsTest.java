@@ -0,0 +1,32 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MetricsTest {
+
+    @Test
+    public void histogramCountsValuesInPowerOfTwoBuckets() {
+        Metrics.Histogram histogram = new Metrics.Histogram("test", "ns");
+        for (long value = 0; value < 100; value++) {
+            histogram.record(value);
+        }
+        histogram.record(1000);
+        Assertions.assertEquals(101, histogram.getCount());
+        Assertions.assertEquals(1000, histogram.getMax());
+        Assertions.assertEquals(5950 / 101.0, histogram.getMean(), 1e-9);
+        Assertions.assertEquals(63, histogram.getPercentile(50));
+        Assertions.assertEquals(127, histogram.getPercentile(99));
+        Assertions.assertEquals(1000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void resetClearsHistogram() {
+        Metrics.Histogram histogram = new Metrics.Histogram("test", "ns");
+        histogram.record(42);
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.getCount());
+        Assertions.assertEquals(0, histogram.getMax());
+        Assertions.assertEquals(0, histogram.getPercentile(99));
+    }
+}
@@ -0,0 +1,47 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+public class MonteCarloStrategyTest {
+
+    @Test
+    public void monteCarloWinsAgainstStandingCar() throws IOException, InvalidTrackFormatException {
+        for (String trackName : new String[]{"quarter-mile.txt", "oval-clock-up.txt"}) {
+            Game game = new Game(new Track(new File("tracks/" + trackName)));
+            MoveStrategy monteCarlo = new MONTE_CARLO_STRATEGY(game, 0, 20, 2);
+            GameResult result = GameEngine.run(game, Arrays.asList(monteCarlo, new DO_NOT_MOVE_STRATEGY()), 200);
+            Assertions.assertEquals(0, result.getWinnerIndex(), trackName);
+            Assertions.assertFalse(result.isCrashed(0), trackName);
+        }
+    }
+
+    @Test
+    public void searchDoesNotChangeGame() throws IOException, InvalidTrackFormatException {
+        Game game = new Game(new Track(new File("tracks/challenge.txt")));
+        long[] snapshot = game.snapshot();
+        // NONE is the fifth root move a worker expands, leave time for it on a loaded machine
+        MONTE_CARLO_STRATEGY monteCarlo = new MONTE_CARLO_STRATEGY(game, 0, 100, 2);
+        monteCarlo.nextMove();
+        Assertions.assertArrayEquals(snapshot, game.snapshot());
+        Assertions.assertTrue(monteCarlo.getVisits(PositionVector.Direction.NONE) > 0);
+    }
+
+    @Test
+    public void bestMoveSoFarIsAvailableDuringSearch() throws Exception {
+        Game game = new Game(new Track(new File("tracks/challenge.txt")));
+        MONTE_CARLO_STRATEGY monteCarlo = new MONTE_CARLO_STRATEGY(game, 0, 20, 2);
+        Assertions.assertNull(monteCarlo.bestMoveSoFar());
+        CompletableFuture<PositionVector.Direction> move = monteCarlo.nextMove(200);
+        Thread.sleep(100);
+        Assertions.assertFalse(move.isDone());
+        Assertions.assertNotNull(monteCarlo.bestMoveSoFar());
+        Assertions.assertNotNull(move.get());
+    }
+}
@@ -0,0 +1,64 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static ch.zhaw.pm2.racetrack.PositionVector.Direction;
+
+public class MoveListStrategyTest {
+
+    @Test
+    public void movesAreReplayedInOrder() throws IOException {
+        File moveFile = writeMoveFile("# test moves\nUP_LEFT\r\n\ndown\n  RIGHT  \nNONE");
+        try (MOVE_LISTE_STRATEGY strategy = new MOVE_LISTE_STRATEGY(moveFile)) {
+            Assertions.assertEquals(Direction.UP_LEFT, strategy.nextMove());
+            Assertions.assertEquals(Direction.DOWN, strategy.nextMove());
+            Assertions.assertEquals(Direction.RIGHT, strategy.nextMove());
+            Assertions.assertEquals(Direction.NONE, strategy.nextMove());
+            Assertions.assertEquals(Direction.NONE, strategy.nextMove());
+        }
+    }
+
+    @Test
+    public void longMoveFileIsReadInBlocks() throws IOException {
+        Direction[] directions = Direction.values();
+        File moveFile = File.createTempFile("moves", ".txt");
+        moveFile.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(moveFile, StandardCharsets.US_ASCII.name())) {
+            for (int move = 0; move < 300000; move++) {
+                writer.println(directions[move % directions.length]);
+            }
+        }
+        try (MOVE_LISTE_STRATEGY strategy = new MOVE_LISTE_STRATEGY(moveFile)) {
+            for (int move = 0; move < 300000; move++) {
+                Assertions.assertEquals(directions[move % directions.length], strategy.nextMove());
+            }
+            Assertions.assertEquals(Direction.NONE, strategy.nextMove());
+        }
+    }
+
+    @Test
+    public void invalidMoveIsRejected() throws IOException {
+        File moveFile = writeMoveFile("UP\nSIDEWAYS\nDOWN\n");
+        try (MOVE_LISTE_STRATEGY strategy = new MOVE_LISTE_STRATEGY(moveFile)) {
+            Assertions.assertEquals(Direction.UP, strategy.nextMove());
+            IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                strategy::nextMove);
+            Assertions.assertTrue(exception.getMessage().contains("line 2"));
+            Assertions.assertThrows(IllegalArgumentException.class, strategy::nextMove);
+        }
+    }
+
+    private static File writeMoveFile(String content) throws IOException {
+        File moveFile = File.createTempFile("moves", ".txt");
+        moveFile.deleteOnExit();
+        Files.write(moveFile.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+        return moveFile;
+    }
+}
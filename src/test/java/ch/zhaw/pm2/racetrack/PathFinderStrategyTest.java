@@ -0,0 +1,32 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class PathFinderStrategyTest {
+
+    @Test
+    public void pathFinderWinsAgainstStandingCar() throws IOException, InvalidTrackFormatException {
+        for (String trackName : new String[]{"challenge.txt", "oval-clock-up.txt", "oval-anticlock-right.txt"}) {
+            Track track = new Track(new File("tracks/" + trackName));
+            MoveStrategy pathFinder = new PATH_FINDER_STRATEGY(track, 0);
+            GameResult result = GameEngine.run(track, Arrays.asList(pathFinder, new DO_NOT_MOVE_STRATEGY()), 200);
+            Assertions.assertEquals(0, result.getWinnerIndex(), trackName);
+            Assertions.assertFalse(result.isCrashed(0), trackName);
+        }
+    }
+
+    @Test
+    public void routeIsPlannedOnFirstMove() throws IOException, InvalidTrackFormatException {
+        Track track = new Track(new File("tracks/challenge.txt"));
+        PATH_FINDER_STRATEGY pathFinder = new PATH_FINDER_STRATEGY(track, 0);
+        Assertions.assertEquals(0, pathFinder.getRemainingMoves());
+        pathFinder.nextMove();
+        Assertions.assertEquals(28, pathFinder.getRemainingMoves());
+    }
+}
@@ -0,0 +1,38 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PositionVectorTest {
+
+    @Test
+    public void equalVectorsHaveEqualHashCodes() {
+        PositionVector vector = new PositionVector(3, -7);
+        Assertions.assertEquals(new PositionVector(3, -7), vector);
+        Assertions.assertEquals(new PositionVector(3, -7).hashCode(), vector.hashCode());
+        Assertions.assertNotEquals(new PositionVector(-7, 3), vector);
+        Assertions.assertFalse(vector.equals("(X:3, Y:-7)"));
+    }
+
+    @Test
+    public void smallVectorsAreCached() {
+        Assertions.assertSame(PositionVector.of(1, -1), PositionVector.Direction.UP_RIGHT.vector);
+        Assertions.assertSame(PositionVector.of(5, 2),
+            PositionVector.add(PositionVector.of(4, 1), PositionVector.Direction.DOWN_RIGHT.vector));
+        Assertions.assertEquals(new PositionVector(1000, 2), PositionVector.of(1000, 2));
+    }
+
+    @Test
+    public void packAndUnpack() {
+        int[][] vectors = {{0, 0}, {1, -1}, {-32768, 32767}, {12345, -6789}};
+        for (int[] vector : vectors) {
+            long packed = PositionVector.pack(vector[0], vector[1]);
+            Assertions.assertEquals(vector[0], PositionVector.packedX(packed));
+            Assertions.assertEquals(vector[1], PositionVector.packedY(packed));
+            int compact = PositionVector.packCompact(vector[0], vector[1]);
+            Assertions.assertEquals(vector[0], PositionVector.compactX(compact));
+            Assertions.assertEquals(vector[1], PositionVector.compactY(compact));
+        }
+        Assertions.assertEquals(PositionVector.pack(Integer.MIN_VALUE, -1), new PositionVector(Integer.MIN_VALUE, -1).pack());
+    }
+}
@@ -0,0 +1,21 @@
+package ch.zhaw.pm2.racetrack;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RaceEventsTest {
+
+    @Test
+    public void eventsAreOnlyCreatedWhileRecorded() {
+        Assertions.assertNull(RaceEvents.beginTurn());
+        Assertions.assertNull(RaceEvents.beginStrategyMove());
+        try (Recording recording = new Recording()) {
+            recording.disable(RaceEvents.StrategyMoveEvent.class);
+            recording.start();
+            Assertions.assertNotNull(RaceEvents.beginTurn());
+            Assertions.assertNull(RaceEvents.beginStrategyMove());
+        }
+        Assertions.assertNull(RaceEvents.beginTurn());
+    }
+}
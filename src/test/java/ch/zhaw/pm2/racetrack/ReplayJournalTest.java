@@ -0,0 +1,73 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ReplayJournalTest {
+    private static final File TRACK_FILE = new File("tracks/challenge.txt");
+
+    @Test
+    public void seekRestoresEveryRecordedTurn() throws IOException, InvalidTrackFormatException {
+        File journalFile = File.createTempFile("game", ".rtj");
+        journalFile.deleteOnExit();
+        Game game = new Game(new Track(TRACK_FILE));
+        List<MoveStrategy> strategies = Arrays.asList(new PATH_FINDER_STRATEGY(game.getTrack(), 0),
+            new DO_NOT_MOVE_STRATEGY());
+        List<long[]> states = new ArrayList<>();
+        List<Integer> winners = new ArrayList<>();
+        states.add(carStates(game));
+        winners.add(game.getWinner());
+        try (ReplayJournal journal = new ReplayJournal(journalFile, TRACK_FILE, game, 5)) {
+            game.setJournal(journal);
+            while (game.getWinner() == Game.NO_WINNER) {
+                game.doCarTurn(strategies.get(game.getCurrentCarIndex()).nextMove());
+                states.add(carStates(game));
+                winners.add(game.getWinner());
+                game.switchToNextActiveCar();
+            }
+            Assertions.assertEquals(states.size() - 1, journal.getTurnCount());
+        }
+
+        try (ReplayReader reader = new ReplayReader(journalFile)) {
+            Assertions.assertEquals(states.size() - 1, reader.getTurnCount());
+            Assertions.assertEquals(TRACK_FILE, reader.getTrackFile());
+            Game replay = reader.seek(reader.getTurnCount());
+            Assertions.assertEquals(0, replay.getWinner());
+            for (int turn = states.size() - 1; turn >= 0; turn--) {
+                reader.seek(replay, turn);
+                Assertions.assertArrayEquals(states.get(turn), carStates(replay));
+                Assertions.assertEquals((int) winners.get(turn), replay.getWinner());
+            }
+        }
+    }
+
+    @Test
+    public void seekBeyondLastTurnIsRejected() throws IOException, InvalidTrackFormatException {
+        File journalFile = File.createTempFile("game", ".rtj");
+        journalFile.deleteOnExit();
+        Game game = new Game(new Track(TRACK_FILE));
+        try (ReplayJournal journal = new ReplayJournal(journalFile, TRACK_FILE, game, 5)) {
+            game.setJournal(journal);
+            game.doCarTurn(PositionVector.Direction.LEFT);
+        }
+        try (ReplayReader reader = new ReplayReader(journalFile)) {
+            Assertions.assertEquals(1, reader.getTurnCount());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> reader.seek(game, 2));
+        }
+    }
+
+    /**
+     * @return state of all cars, without the active car which depends on when the game loop switches cars
+     */
+    private static long[] carStates(Game game) {
+        long[] snapshot = game.snapshot();
+        return Arrays.copyOfRange(snapshot, 1, snapshot.length);
+    }
+}
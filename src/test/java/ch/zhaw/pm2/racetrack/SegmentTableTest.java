@@ -0,0 +1,137 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SegmentTableTest {
+    private static final String[] TRACKS = {"challenge.txt", "oval-anticlock-right.txt", "oval-clock-up.txt",
+        "quarter-mile.txt"};
+    private static final int SEGMENTS = 20000;
+    private static final int MAX_VELOCITY = 12;
+    private static final int LONG_VELOCITY = 150;
+
+    @Test
+    public void wallHitStepMatchesPathWalk() throws IOException, InvalidTrackFormatException {
+        Random random = new Random(19);
+        for (String trackName : TRACKS) {
+            Track track = new Track(new File("tracks/" + trackName));
+            for (int segment = 0; segment < SEGMENTS; segment++) {
+                int x = random.nextInt(track.getWidth());
+                int y = random.nextInt(track.getHeight());
+                int velocityX = random.nextInt(2 * MAX_VELOCITY + 1) - MAX_VELOCITY;
+                int velocityY = random.nextInt(2 * MAX_VELOCITY + 1) - MAX_VELOCITY;
+                // every segment twice, the second lookup is answered by the table
+                for (int lookup = 0; lookup < 2; lookup++) {
+                    Assertions.assertEquals(walkWallHitStep(track, x, y, velocityX, velocityY),
+                        track.getWallHitStep(x, y, velocityX, velocityY),
+                        trackName + " " + x + "," + y + " " + velocityX + "," + velocityY);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void longSegmentsMatchPathWalk() throws IOException, InvalidTrackFormatException {
+        Random random = new Random(20);
+        for (String trackName : TRACKS) {
+            Track track = new Track(new File("tracks/" + trackName));
+            for (int segment = 0; segment < SEGMENTS; segment++) {
+                // starts around the grid and velocities across the whole track, so runs span several words
+                int x = random.nextInt(track.getWidth() + 20) - 10;
+                int y = random.nextInt(track.getHeight() + 20) - 10;
+                int velocityX = random.nextInt(2 * LONG_VELOCITY + 1) - LONG_VELOCITY;
+                int velocityY = random.nextInt(2 * LONG_VELOCITY + 1) - LONG_VELOCITY;
+                if (random.nextBoolean()) {
+                    velocityY /= 8;
+                }
+                Assertions.assertEquals(walkSegment(track, x, y, velocityX, velocityY),
+                    track.getSegment(x, y, velocityX, velocityY),
+                    trackName + " " + x + "," + y + " " + velocityX + "," + velocityY);
+            }
+        }
+    }
+
+    @Test
+    public void pathPositionMatchesPathWalk() {
+        Random random = new Random(7);
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            int startX = random.nextInt(40);
+            int startY = random.nextInt(40);
+            int endX = startX + random.nextInt(2 * MAX_VELOCITY + 1) - MAX_VELOCITY;
+            int endY = startY + random.nextInt(2 * MAX_VELOCITY + 1) - MAX_VELOCITY;
+            int[] step = {0};
+            Game.traversePath(startX, startY, endX, endY, (x, y) -> {
+                Assertions.assertEquals(PositionVector.pack(x, y),
+                    Game.getPathPosition(startX, startY, endX, endY, step[0]));
+                step[0]++;
+                return true;
+            });
+        }
+    }
+
+    @Test
+    public void tableIsSharedByTrackCopies() throws IOException, InvalidTrackFormatException {
+        Track track = new Track(new File("tracks/challenge.txt"));
+        Track copy = track.copy();
+        Assertions.assertEquals(track.getWallHitStep(24, 22, 0, -5), copy.getWallHitStep(24, 22, 0, -5));
+        Assertions.assertNotEquals(Track.NO_WALL_HIT, track.getWallHitStep(24, 22, 0, -5));
+        Assertions.assertEquals(Track.NO_WALL_HIT, track.getWallHitStep(24, 22, -3, 0));
+    }
+
+    @Test
+    public void wallHitStepIsExactOnWideTracks() throws IOException, InvalidTrackFormatException {
+        // a corridor of 1500 spaces with the cars at its start and a finish line at 600
+        char[] row = new char[1500];
+        Arrays.fill(row, '#');
+        String walls = new String(row);
+        Arrays.fill(row, 1, row.length - 1, ' ');
+        row[1] = 'a';
+        row[2] = 'b';
+        row[600] = '>';
+        File trackFile = File.createTempFile("corridor", ".txt");
+        trackFile.deleteOnExit();
+        Files.write(trackFile.toPath(), (walls + "\n" + new String(row) + "\n" + walls + "\n")
+            .getBytes(StandardCharsets.UTF_8));
+
+        for (Track track : new Track[]{new Track(trackFile), Track.openTiled(trackFile)}) {
+            for (int lookup = 0; lookup < 2; lookup++) {
+                Assertions.assertEquals(1494, track.getWallHitStep(5, 1, 1495, 0));
+                Assertions.assertEquals(1494 | SegmentTable.FINISH_LINE_FLAG, track.getSegment(5, 1, 1495, 0));
+                Assertions.assertEquals(1497, track.getWallHitStep(1497, 1, -1600, 0));
+                // short segments, answered by the table on the second lookup
+                Assertions.assertEquals(199, track.getSegment(1300, 1, 250, 0));
+                Assertions.assertEquals(SegmentTable.FINISH_LINE_FLAG, track.getSegment(610, 1, -250, 0));
+                Assertions.assertEquals(Track.NO_WALL_HIT, track.getSegment(700, 1, 250, 0));
+            }
+        }
+    }
+
+    private static int walkWallHitStep(Track track, int startX, int startY, int velocityX, int velocityY) {
+        return walkSegment(track, startX, startY, velocityX, velocityY) & ~SegmentTable.FINISH_LINE_FLAG;
+    }
+
+    private static int walkSegment(Track track, int startX, int startY, int velocityX, int velocityY) {
+        int[] step = {0};
+        int[] segment = {Track.NO_WALL_HIT};
+        Game.traversePath(startX, startY, startX + velocityX, startY + velocityY, (x, y) -> {
+            Config.SpaceType spaceType = track.getSpaceType(x, y);
+            if (step[0] > 0 && spaceType == Config.SpaceType.WALL) {
+                segment[0] |= step[0];
+                return false;
+            }
+            if (Track.isFinishLine(spaceType)) {
+                segment[0] |= SegmentTable.FINISH_LINE_FLAG;
+            }
+            step[0]++;
+            return true;
+        });
+        return segment[0];
+    }
+}
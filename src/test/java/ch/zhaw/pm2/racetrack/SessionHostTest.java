@@ -0,0 +1,201 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+
+public class SessionHostTest {
+    private static final File TRACK_FILE = new File("tracks/challenge.txt");
+
+    private SessionHost host;
+
+    @BeforeEach
+    public void init() throws IOException {
+        host = new SessionHost(0);
+        host.start();
+    }
+
+    @AfterEach
+    public void close() {
+        host.close();
+    }
+
+    @Test
+    public void clientsTakeTurns() throws IOException, InvalidTrackFormatException {
+        int session = host.createSession(TRACK_FILE);
+        try (Client first = new Client(); Client second = new Client()) {
+            Assertions.assertEquals("JOINED " + session + " a", first.request("JOIN " + session + " a"));
+            Assertions.assertEquals("STATE " + session + " 0 a - a,24,22,0,0,0 b,24,24,0,0,0", first.readLine());
+            Assertions.assertEquals("ERROR car a is taken", second.request("JOIN " + session + " a"));
+            Assertions.assertEquals("JOINED " + session + " b", second.request("JOIN " + session + " b"));
+            second.readLine();
+
+            Assertions.assertEquals("ERROR not your turn", second.request("MOVE RIGHT"));
+            String state = "STATE " + session + " 1 b - a,25,22,1,0,0 b,24,24,0,0,0";
+            Assertions.assertEquals(state, first.request("MOVE right"));
+            Assertions.assertEquals(state, second.readLine());
+            Assertions.assertEquals(state, first.request("STATE"));
+            Assertions.assertEquals("ERROR usage: MOVE <direction>", second.request("MOVE SIDEWAYS"));
+            Assertions.assertEquals("BYE", second.request("QUIT"));
+        }
+    }
+
+    @Test
+    public void invalidCommandsAreRejected() throws IOException, InvalidTrackFormatException {
+        int session = host.createSession(TRACK_FILE);
+        try (Client client = new Client()) {
+            Assertions.assertEquals("ERROR not joined", client.request("MOVE UP"));
+            Assertions.assertEquals("ERROR unknown session 999", client.request("JOIN 999 a"));
+            Assertions.assertEquals("ERROR unknown car z", client.request("JOIN " + session + " z"));
+            Assertions.assertEquals("ERROR unknown command JUMP", client.request("JUMP"));
+        }
+    }
+
+    @Test
+    public void manySessionsShareTheTrack() throws IOException, InvalidTrackFormatException {
+        for (int session = 0; session < 1000; session++) {
+            host.createSession(TRACK_FILE);
+        }
+        Assertions.assertEquals(1000, host.getSessionCount());
+        try (Client client = new Client()) {
+            Assertions.assertEquals("JOINED 1000 b", client.request("JOIN 1000 b"));
+        }
+    }
+
+    @Test
+    public void hostSurvivesClientResetDuringBroadcast() throws IOException, InvalidTrackFormatException {
+        for (int round = 0; round < 50; round++) {
+            int session = host.createSession(TRACK_FILE);
+            try (Client first = new Client()) {
+                Client second = new Client();
+                first.request("JOIN " + session + " a");
+                first.readLine();
+                second.request("JOIN " + session + " b");
+                second.readLine();
+                // close with a reset instead of a regular end of the stream
+                second.socket.setSoLinger(true, 0);
+                second.close();
+                Assertions.assertTrue(first.request("MOVE RIGHT").startsWith("STATE " + session + " "));
+            }
+        }
+        try (Client client = new Client()) {
+            Assertions.assertEquals("ERROR not joined", client.request("STATE"));
+        }
+    }
+
+    @Test
+    public void carsWithoutClientCoastOnceRaceStarted() throws IOException, InvalidTrackFormatException {
+        int session = host.createSession(TRACK_FILE);
+        try (Client first = new Client(); Client second = new Client()) {
+            first.request("JOIN " + session + " a");
+            first.readLine();
+            Assertions.assertEquals("JOINED " + session + " b", second.request("JOIN " + session + " b"));
+            second.readLine();
+            Assertions.assertEquals("BYE", second.request("QUIT"));
+            // before the race starts, a car waits for its client
+            Assertions.assertEquals("STATE " + session + " 0 a - a,24,22,0,0,0 b,24,24,0,0,0", first.request("STATE"));
+
+            Assertions.assertEquals("STATE " + session + " 2 a - a,25,22,1,0,0 b,24,24,0,0,0",
+                first.request("MOVE RIGHT"));
+            Assertions.assertEquals("STATE " + session + " 4 a - a,27,22,2,0,0 b,24,24,0,0,0",
+                first.request("MOVE RIGHT"));
+        }
+    }
+
+    @Test
+    public void sessionIsRemovedWhenLastClientLeavesStartedRace()
+        throws IOException, InvalidTrackFormatException, InterruptedException {
+        int waiting = host.createSession(TRACK_FILE);
+        int started = host.createSession(TRACK_FILE);
+        try (Client first = new Client(); Client second = new Client()) {
+            first.request("JOIN " + waiting + " a");
+            first.readLine();
+            second.request("JOIN " + started + " a");
+            second.readLine();
+            second.request("MOVE RIGHT");
+        }
+        awaitSessionCount(1);
+        try (Client client = new Client()) {
+            Assertions.assertEquals("ERROR unknown session " + started, client.request("JOIN " + started + " b"));
+            Assertions.assertEquals("JOINED " + waiting + " a", client.request("JOIN " + waiting + " a"));
+        }
+    }
+
+    @Test
+    public void clientWhichDoesNotReadIsDropped() throws IOException, InvalidTrackFormatException {
+        int session = host.createSession(TRACK_FILE);
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), host.getPort()));
+            socket.setSoTimeout(5000);
+            OutputStream output = socket.getOutputStream();
+            output.write(("JOIN " + session + " a\n").getBytes(StandardCharsets.UTF_8));
+            byte[] requests = "STATE\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+            try {
+                // far more than the pending output allowed for a client, even with full socket buffers
+                for (int batch = 0; batch < 2000; batch++) {
+                    output.write(requests);
+                }
+                Assertions.fail("Client was not dropped");
+            } catch (SocketException e) {
+                // the host closed the connection
+            }
+        }
+        try (Client client = new Client()) {
+            Assertions.assertEquals("JOINED " + session + " a", client.request("JOIN " + session + " a"));
+        }
+    }
+
+    private void awaitSessionCount(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (host.getSessionCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(count, host.getSessionCount());
+    }
+
+    /**
+     * Blocking client of the line protocol.
+     */
+    private class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final Writer writer;
+
+        private Client() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), host.getPort());
+            socket.setSoTimeout(5000);
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        }
+
+        private String request(String command) throws IOException {
+            writer.write(command + "\n");
+            writer.flush();
+            return readLine();
+        }
+
+        private String readLine() throws IOException {
+            return reader.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
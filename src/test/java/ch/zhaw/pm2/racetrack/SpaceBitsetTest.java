@@ -0,0 +1,52 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Random;
+
+public class SpaceBitsetTest {
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 70;
+
+    @Test
+    public void findMatchesSpaceBySpaceScan() {
+        Random random = new Random(64);
+        byte[] grid = new byte[WIDTH * HEIGHT];
+        for (int index = 0; index < grid.length; index++) {
+            grid[index] = (byte) (random.nextInt(20) == 0 ? Config.SpaceType.WALL : Config.SpaceType.TRACK).ordinal();
+        }
+        for (boolean outside : new boolean[]{true, false}) {
+            SpaceBitset walls = new SpaceBitset(grid, WIDTH, HEIGHT, EnumSet.of(Config.SpaceType.WALL), outside);
+            for (int run = 0; run < 20000; run++) {
+                int line = random.nextInt(HEIGHT + 4) - 2;
+                int from = random.nextInt(WIDTH + 10) - 5;
+                int to = random.nextInt(WIDTH + 10) - 5;
+                Assertions.assertEquals(scan(grid, outside, from, line, to, line, true),
+                    walls.findInRow(line, from, to), "row " + line + " " + from + ".." + to);
+                line = random.nextInt(WIDTH + 4) - 2;
+                from = random.nextInt(HEIGHT + 10) - 5;
+                to = random.nextInt(HEIGHT + 10) - 5;
+                Assertions.assertEquals(scan(grid, outside, line, from, line, to, false),
+                    walls.findInColumn(line, from, to), "column " + line + " " + from + ".." + to);
+            }
+        }
+    }
+
+    private static int scan(byte[] grid, boolean outside, int fromX, int fromY, int toX, int toY, boolean horizontal) {
+        int from = horizontal ? fromX : fromY;
+        int to = horizontal ? toX : toY;
+        int direction = to < from ? -1 : 1;
+        for (int position = from; position != to + direction; position += direction) {
+            int x = horizontal ? position : fromX;
+            int y = horizontal ? fromY : position;
+            boolean wall = x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT
+                ? outside : grid[y * WIDTH + x] == Config.SpaceType.WALL.ordinal();
+            if (wall) {
+                return position;
+            }
+        }
+        return SpaceBitset.NOT_FOUND;
+    }
+}
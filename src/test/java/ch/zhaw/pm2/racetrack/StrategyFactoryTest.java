@@ -0,0 +1,33 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class StrategyFactoryTest {
+
+    @Test
+    public void distanceFieldStrategiesAreRejectedOnTiledTracks() throws IOException, InvalidTrackFormatException {
+        Game tiled = new Game(Track.openTiled(new File("tracks/challenge.txt")));
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+            () -> StrategyFactory.create(Config.StrategyType.MONTE_CARLO, tiled, 0));
+        Assertions.assertTrue(exception.getMessage().contains("tiled"));
+        Assertions.assertTrue(StrategyFactory.needsDistanceFields(Config.StrategyType.MONTE_CARLO));
+
+        for (Config.StrategyType type : StrategyFactory.getHeadlessTypes()) {
+            if (!StrategyFactory.needsDistanceFields(type)) {
+                Assertions.assertNotNull(StrategyFactory.create(type, tiled, 0));
+            }
+        }
+    }
+
+    @Test
+    public void allHeadlessStrategiesPlayOnLoadedTracks() throws IOException, InvalidTrackFormatException {
+        Game game = new Game(new Track(new File("tracks/challenge.txt")));
+        for (Config.StrategyType type : StrategyFactory.getHeadlessTypes()) {
+            Assertions.assertNotNull(StrategyFactory.create(type, game, 0));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+
+public class TournamentTest {
+
+    @Test
+    public void pathFinderBeatsDoNotMove() throws IOException, InvalidTrackFormatException {
+        Tournament tournament = new Tournament(Collections.singletonList(new File("tracks/quarter-mile.txt")),
+            Arrays.asList(Config.StrategyType.DO_NOT_MOVE, Config.StrategyType.PATH_FINDER), 3, 1000);
+        Assertions.assertEquals(6, tournament.getGameCount());
+
+        Tournament.Result result = tournament.run(new ForkJoinPool(2));
+        Assertions.assertEquals(6, result.getGames(Config.StrategyType.PATH_FINDER));
+        Assertions.assertEquals(1.0, result.getWinRate(Config.StrategyType.PATH_FINDER));
+        Assertions.assertEquals(0.0, result.getWinRate(Config.StrategyType.DO_NOT_MOVE));
+        Assertions.assertEquals(0.0, result.getCrashRate(Config.StrategyType.PATH_FINDER));
+        Assertions.assertTrue(result.getAverageTurns(Config.StrategyType.PATH_FINDER) > 0);
+    }
+
+    @Test
+    public void userStrategyCanNotPlay() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Tournament(
+            Collections.singletonList(new File("tracks/quarter-mile.txt")),
+            Arrays.asList(Config.StrategyType.DO_NOT_MOVE, Config.StrategyType.USER), 1, 10));
+    }
+}
@@ -0,0 +1,64 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class TrackBuilderTest {
+    private TrackBuilder trackBuilder;
+
+    @BeforeEach
+    public void init() {
+        trackBuilder = new TrackBuilder();
+    }
+
+    @Test
+    public void buildChallengeTrack() throws IOException, InvalidTrackFormatException {
+        Config.SpaceType[][] trackArray = trackBuilder.buildTrack(new File("tracks/challenge.txt"));
+        Assertions.assertEquals(63, trackBuilder.getTrackWidth());
+        Assertions.assertEquals(26, trackBuilder.getTrackHeight());
+        Assertions.assertEquals(63, trackArray.length);
+        Assertions.assertEquals(Config.SpaceType.WALL, trackArray[0][0]);
+        Assertions.assertEquals(Config.SpaceType.FINISH_RIGHT, trackArray[22][22]);
+        Assertions.assertEquals(Config.SpaceType.TRACK, trackArray[24][22]);
+        Assertions.assertEquals(new PositionVector(24, 22), trackBuilder.getCarMap().get('a'));
+        Assertions.assertEquals(2, trackBuilder.getNumberOfCars());
+    }
+
+    @Test
+    public void buildTrackWithNonAsciiCar() throws IOException, InvalidTrackFormatException {
+        trackBuilder.buildTrack(new File("tracks/quarter-mile.txt"));
+        Assertions.assertEquals(60, trackBuilder.getTrackWidth());
+        Assertions.assertEquals(9, trackBuilder.getTrackHeight());
+        Assertions.assertEquals(new PositionVector(56, 3), trackBuilder.getCarMap().get('\u00a7'));
+    }
+
+    @Test
+    public void wrongTrackWidth() {
+        assertErrorType(ErrorType.NOT_SAME_LENGTH, "testtracks/wrong_track_width.txt");
+    }
+
+    @Test
+    public void emptyTrack() {
+        assertErrorType(ErrorType.NO_TRACK_LINES, "testtracks/empty_track.txt");
+    }
+
+    @Test
+    public void tooManyCars() {
+        assertErrorType(ErrorType.TOO_MANY_CARS, "testtracks/too_many_cars.txt");
+    }
+
+    @Test
+    public void duplicateCars() {
+        assertErrorType(ErrorType.TOO_MANY_CARS, "testtracks/duplicate_cars.txt");
+    }
+
+    private void assertErrorType(ErrorType expected, String fileName) {
+        InvalidTrackFormatException exception = Assertions.assertThrows(InvalidTrackFormatException.class,
+                () -> trackBuilder.buildTrack(new File(fileName)));
+        Assertions.assertEquals(expected, exception.getErrorType());
+    }
+}
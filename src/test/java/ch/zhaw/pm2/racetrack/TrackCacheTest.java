@@ -0,0 +1,47 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class TrackCacheTest {
+    private TrackCache trackCache;
+
+    @BeforeEach
+    public void init() {
+        trackCache = new TrackCache(2);
+    }
+
+    @Test
+    public void copiesShareGridButNotCars() throws IOException, InvalidTrackFormatException {
+        File trackFile = new File("tracks/challenge.txt");
+        Track first = trackCache.getTrack(trackFile);
+        Track second = trackCache.getTrack(trackFile);
+        Assertions.assertEquals(1, trackCache.getMisses());
+        Assertions.assertEquals(1, trackCache.getHits());
+        Assertions.assertNotSame(first, second);
+        Assertions.assertSame(first.getFinishDistances(), second.getFinishDistances());
+
+        first.moveCar(0, PositionVector.of(20, 22));
+        Assertions.assertEquals(PositionVector.of(24, 22), second.getCarPos(0));
+        Assertions.assertEquals(Track.NO_CAR, second.getCarIndexAt(20, 22));
+        Assertions.assertEquals(PositionVector.of(24, 22), trackCache.getTrack(trackFile).getCarPos(0));
+    }
+
+    @Test
+    public void leastRecentlyUsedTrackIsEvicted() throws IOException, InvalidTrackFormatException {
+        File challenge = new File("tracks/challenge.txt");
+        trackCache.getTrack(challenge);
+        trackCache.getTrack(new File("tracks/oval-clock-up.txt"));
+        trackCache.getTrack(challenge);
+        trackCache.getTrack(new File("tracks/quarter-mile.txt"));
+        Assertions.assertEquals(2, trackCache.size());
+        trackCache.getTrack(challenge);
+        Assertions.assertEquals(2, trackCache.getHits());
+        trackCache.getTrack(new File("tracks/oval-clock-up.txt"));
+        Assertions.assertEquals(4, trackCache.getMisses());
+    }
+}
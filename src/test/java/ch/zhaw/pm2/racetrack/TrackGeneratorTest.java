@@ -0,0 +1,95 @@
+package ch.zhaw.pm2.racetrack;
+
+import ch.zhaw.pm2.racetrack.strategy.MoveStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TrackGeneratorTest {
+    private static final Config.SpaceType[] FINISH_LINES = {Config.SpaceType.FINISH_RIGHT,
+        Config.SpaceType.FINISH_DOWN, Config.SpaceType.FINISH_LEFT, Config.SpaceType.FINISH_UP};
+
+    @Test
+    public void sameSeedGivesSameTrack() {
+        Assertions.assertArrayEquals(new TrackGenerator(42, 80, 40).generate(),
+            new TrackGenerator(42, 80, 40).generate());
+        Assertions.assertFalse(Arrays.equals(new TrackGenerator(42, 80, 40).generate(),
+            new TrackGenerator(43, 80, 40).generate()));
+    }
+
+    @Test
+    public void generatedTracksCanBeWon() throws IOException, InvalidTrackFormatException {
+        for (int seed = 0; seed < 3; seed++) {
+            for (Config.SpaceType finishLine : FINISH_LINES) {
+                TrackGenerator generator = new TrackGenerator(seed, 50 + 30 * seed, 25 + 15 * seed);
+                generator.setCurviness(seed / 2.0);
+                generator.setFinishLine(finishLine);
+                generator.setCarCount(2 + seed);
+                Track track = loadTrack(generator);
+                Assertions.assertEquals(2 + seed, track.getCarCount());
+
+                List<MoveStrategy> strategies = new ArrayList<>();
+                strategies.add(new PATH_FINDER_STRATEGY(track, 0));
+                for (int carIndex = 1; carIndex < track.getCarCount(); carIndex++) {
+                    strategies.add(new DO_NOT_MOVE_STRATEGY());
+                }
+                GameResult result = GameEngine.run(track, strategies, 500);
+                Assertions.assertEquals(0, result.getWinnerIndex(), "seed " + seed + " " + finishLine);
+            }
+        }
+    }
+
+    @Test
+    public void allCarsFitIntoAWideCorridor() throws IOException, InvalidTrackFormatException {
+        TrackGenerator generator = new TrackGenerator(7, 200, 100);
+        generator.setCorridorWidth(12);
+        generator.setCurviness(1);
+        generator.setCarCount(Config.MAX_CARS);
+        Assertions.assertEquals(Config.MAX_CARS, loadTrack(generator).getCarCount());
+    }
+
+    @Test
+    public void corridorMustFitIntoGrid() {
+        TrackGenerator generator = new TrackGenerator(1, 50, 25);
+        generator.setCorridorWidth(10);
+        Assertions.assertThrows(IllegalArgumentException.class, generator::generate);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> generator.setCarCount(Config.MAX_CARS + 1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> generator.setFinishLine(Config.SpaceType.TRACK));
+    }
+
+    @Test
+    public void writtenRowsMatchGeneratedGrid() throws IOException {
+        TrackGenerator generator = new TrackGenerator(5, 90, 60);
+        generator.setFinishLine(Config.SpaceType.FINISH_UP);
+        byte[] spaces = generator.generate();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.write(out);
+        byte[] lines = out.toByteArray();
+        Assertions.assertEquals(60 * 91, lines.length);
+        for (int y = 0; y < 60; y++) {
+            Assertions.assertArrayEquals(Arrays.copyOfRange(spaces, y * 90, y * 90 + 90),
+                Arrays.copyOfRange(lines, y * 91, y * 91 + 90));
+            Assertions.assertEquals('\n', lines[y * 91 + 90]);
+        }
+    }
+
+    @Test
+    public void gridsLargerThanAnArrayCanOnlyBeWritten() {
+        TrackGenerator generator = new TrackGenerator(1, 50_000, 50_000);
+        Assertions.assertThrows(IllegalArgumentException.class, generator::generate);
+    }
+
+    private static Track loadTrack(TrackGenerator generator) throws IOException, InvalidTrackFormatException {
+        File trackFile = File.createTempFile("generated", ".txt");
+        trackFile.deleteOnExit();
+        generator.write(trackFile);
+        return new Track(trackFile);
+    }
+}
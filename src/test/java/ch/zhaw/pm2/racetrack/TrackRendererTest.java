@@ -0,0 +1,54 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class TrackRendererTest {
+    private static final File TRACK_FILE = new File("tracks/challenge.txt");
+    private Track track;
+    private TrackRenderer renderer;
+
+    @BeforeEach
+    public void init() throws IOException, InvalidTrackFormatException {
+        track = new Track(TRACK_FILE);
+        renderer = new TrackRenderer(track);
+    }
+
+    @Test
+    public void frameMatchesTrackFile() throws IOException {
+        String expected = String.join("\n", Files.readAllLines(TRACK_FILE.toPath(), StandardCharsets.UTF_8)).trim();
+        Assertions.assertEquals(expected, renderer.drawFrame().trim());
+    }
+
+    @Test
+    public void onlyMovedCarIsRedrawn() {
+        Assertions.assertFalse(renderer.update());
+        track.moveCar(0, PositionVector.of(20, 22));
+        Assertions.assertTrue(renderer.update());
+        Assertions.assertEquals(2, renderer.getChangedCount());
+        StringBuilder changes = new StringBuilder();
+        renderer.drawChanges((x, y, character) -> changes.append(x).append(',').append(y).append(character));
+        Assertions.assertEquals("24,22 20,22a", changes.toString());
+        Assertions.assertEquals(0, renderer.getChangedCount());
+        Assertions.assertEquals('a', renderer.drawFrame().charAt(22 * (track.getWidth() + 1) + 20));
+    }
+
+    @Test
+    public void rowsAreDrawnFromFirstChangedRow() {
+        track.moveCar(1, PositionVector.of(20, 23));
+        renderer.update();
+        Assertions.assertEquals(23, renderer.getFirstChangedRow());
+        StringBuilder rows = new StringBuilder();
+        renderer.drawRows(renderer.getFirstChangedRow(), (y, row) -> rows.append(y).append(':').append(row));
+        Assertions.assertTrue(rows.toString().startsWith("23:"));
+        Assertions.assertEquals(track.getHeight() - 23, rows.toString().split("\n").length);
+        Assertions.assertEquals('b', rows.charAt("23:".length() + 20));
+        Assertions.assertEquals(renderer.getRowCount(), renderer.getFirstChangedRow());
+    }
+}
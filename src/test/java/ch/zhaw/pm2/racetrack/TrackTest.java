@@ -0,0 +1,72 @@
+package ch.zhaw.pm2.racetrack;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class TrackTest {
+    private Track track;
+
+    @BeforeEach
+    public void init() throws IOException, InvalidTrackFormatException {
+        track = new Track(new File("tracks/challenge.txt"));
+    }
+
+    @Test
+    public void spaceTypeLookup() {
+        Assertions.assertEquals(63, track.getWidth());
+        Assertions.assertEquals(26, track.getHeight());
+        Assertions.assertEquals(Config.SpaceType.WALL, track.getSpaceType(0, 0));
+        Assertions.assertEquals(Config.SpaceType.TRACK, track.getSpaceType(20, 1));
+        Assertions.assertEquals(Config.SpaceType.FINISH_RIGHT, track.getSpaceType(new PositionVector(22, 23)));
+    }
+
+    @Test
+    public void outsideOfGridIsWall() {
+        Assertions.assertEquals(Config.SpaceType.WALL, track.getSpaceType(-1, 5));
+        Assertions.assertEquals(Config.SpaceType.WALL, track.getSpaceType(5, track.getHeight()));
+    }
+
+    @Test
+    public void trackArrayMatchesPackedGrid() {
+        Config.SpaceType[][] trackArray = track.getTrackArray();
+        for (int y = 0; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                Assertions.assertEquals(track.getSpaceType(x, y), trackArray[x][y]);
+            }
+        }
+    }
+
+    @Test
+    public void occupancyIndexFollowsCars() {
+        Assertions.assertEquals(0, track.getCarIndexAt(24, 22));
+        Assertions.assertEquals(1, track.getCarIndexAt(24, 24));
+        track.moveCar(0, new PositionVector(20, 22));
+        Assertions.assertEquals(Track.NO_CAR, track.getCarIndexAt(24, 22));
+        Assertions.assertEquals(0, track.getCarIndexAt(20, 22));
+        track.crashCar(0, new PositionVector(19, 21));
+        Assertions.assertEquals(Track.NO_CAR, track.getCarIndexAt(20, 22));
+        Assertions.assertEquals(Track.NO_CAR, track.getCarIndexAt(19, 21));
+    }
+
+    @Test
+    public void distanceToFinish() {
+        Assertions.assertEquals(0, track.getDistanceToFinish(22, 22));
+        Assertions.assertEquals(2, track.getDistanceToFinish(24, 22));
+        Assertions.assertEquals(Track.UNREACHABLE, track.getDistanceToFinish(0, 0));
+        Assertions.assertEquals(Track.UNREACHABLE, track.getDistanceToFinish(-1, 0));
+        Assertions.assertSame(track.getFinishDistances(), track.getFinishDistances());
+    }
+
+    @Test
+    public void lapDistanceLeadsAroundTheTrack() {
+        // the finish line of the challenge track points right, car a starts behind it
+        Assertions.assertEquals(1, track.getLapDistance(21, 22));
+        Assertions.assertEquals(84, track.getLapDistance(24, 22));
+        Assertions.assertEquals(track.getLapDistance(23, 22) + 1, track.getLapDistance(22, 22));
+        Assertions.assertEquals(Track.UNREACHABLE, track.getLapDistance(0, 0));
+    }
+}